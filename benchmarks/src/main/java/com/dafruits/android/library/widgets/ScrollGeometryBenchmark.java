@@ -0,0 +1,34 @@
+package com.dafruits.android.library.widgets;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * The thumb math run by ExtendedListView.onScroll on every scroll event,
+ * in the package of ScrollGeometry since the class is package private.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ScrollGeometryBenchmark {
+
+	private final ScrollGeometry mGeometry = new ScrollGeometry();
+
+	// a list of 1000 rows of 48px shown in 800px, scrolled one pixel per event
+	private final int mRange = 1000 * 100;
+	private final int mExtent = 800 * 100 / 48;
+	private int mOffset = 0;
+
+	@Benchmark
+	public int compute() {
+		mOffset = mOffset == mRange - mExtent ? 0 : mOffset + 1;
+		mGeometry.compute(mRange, mExtent, mOffset, 800, 10);
+		return mGeometry.getThumbCenter();
+	}
+}
@@ -0,0 +1,141 @@
+package com.dafruits.darkud.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.dafruits.darkud.Matrix2D;
+import com.dafruits.darkud.Trig;
+import com.dafruits.darkud.Vect;
+
+/*
+ * The line table of a round counter. computeTicks is the loop of
+ * ProgressDialDrawable.DialState.computeTicks, which can't be compiled
+ * without the Android SDK, the others compute the same table with the
+ * geometry package.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class DialTicksBenchmark {
+
+	@Param({ "100" })
+	public int tickCount;
+
+	@Param({ "96" })
+	public int size;
+
+	/*
+	 * Only taken by the variants going through Trig, so computeTicks, which
+	 * always uses java.lang.Math, runs once instead of once per backend
+	 */
+	@State(Scope.Thread)
+	public static class Backend {
+
+		@Param({ "EXACT", "TABLE", "POLYNOMIAL" })
+		public Trig trig;
+
+		@Setup
+		public void setUp() {
+			Vect.setTrig(trig);
+		}
+	}
+
+	@Benchmark
+	public float[] computeTicks() {
+		// copy of DialState.computeTicks, always java.lang.Math
+		final int lineRatio = (int) (size * 0.1d);
+		final float center = size / 2f;
+		final float radius = center - lineRatio;
+
+		final float[] ticks = new float[tickCount * 4];
+
+		for (int i = 0; i < tickCount; i++) {
+			final double angle = (i * 2 * Math.PI) / tickCount;
+
+			ticks[i * 4] = center;
+			ticks[i * 4 + 1] = center;
+			ticks[i * 4 + 2] = (float) (center - radius * Math.cos(angle));
+			ticks[i * 4 + 3] = (float) (center - radius * Math.sin(angle));
+		}
+
+		return ticks;
+	}
+
+	@Benchmark
+	public float[] computeTicksSinCos(Backend backend) {
+		// same loop with the paired sin and cos of the selected backend
+		final int lineRatio = (int) (size * 0.1d);
+		final float center = size / 2f;
+		final float radius = center - lineRatio;
+		final Trig trig = backend.trig;
+		final Vect sinCos = new Vect();
+
+		final float[] ticks = new float[tickCount * 4];
+
+		for (int i = 0; i < tickCount; i++) {
+			trig.sinCos((i * 2 * Math.PI) / tickCount, sinCos);
+
+			ticks[i * 4] = center;
+			ticks[i * 4 + 1] = center;
+			ticks[i * 4 + 2] = (float) (center - radius * sinCos.x);
+			ticks[i * 4 + 3] = (float) (center - radius * sinCos.y);
+		}
+
+		return ticks;
+	}
+
+	@Benchmark
+	public float[] computeTicksVectRotate(Backend backend) {
+		// every end point is the first one turned around the center
+		final int lineRatio = (int) (size * 0.1d);
+		final float center = size / 2f;
+		final float radius = center - lineRatio;
+		final Vect pivot = new Vect(center, center);
+		final Vect start = new Vect(center - radius, center);
+		final Vect end = new Vect();
+
+		final float[] ticks = new float[tickCount * 4];
+
+		for (int i = 0; i < tickCount; i++) {
+			start.rotateInto(pivot, (i * 2 * Math.PI) / tickCount, end);
+
+			ticks[i * 4] = center;
+			ticks[i * 4 + 1] = center;
+			ticks[i * 4 + 2] = (float) end.x;
+			ticks[i * 4 + 3] = (float) end.y;
+		}
+
+		return ticks;
+	}
+
+	@Benchmark
+	public float[] computeTicksMatrixStep(Backend backend) {
+		// a single rotation of one tick applied again and again, no trigonometry in the loop
+		final int lineRatio = (int) (size * 0.1d);
+		final float center = size / 2f;
+		final float radius = center - lineRatio;
+		final Matrix2D step = new Matrix2D().rotate(new Vect(center, center), 2 * Math.PI / tickCount);
+		final Vect end = new Vect(center - radius, center);
+
+		final float[] ticks = new float[tickCount * 4];
+
+		for (int i = 0; i < tickCount; i++) {
+			ticks[i * 4] = center;
+			ticks[i * 4 + 1] = center;
+			ticks[i * 4 + 2] = (float) end.x;
+			ticks[i * 4 + 3] = (float) end.y;
+
+			step.applyInto(end, end);
+		}
+
+		return ticks;
+	}
+}
@@ -0,0 +1,86 @@
+package com.dafruits.darkud.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.dafruits.darkud.Trig;
+import com.dafruits.darkud.Vect;
+
+/*
+ * Single vector operations, with the allocating methods and their in place
+ * variants, for each Trig backend.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class VectBenchmark {
+
+	@Param({ "EXACT", "TABLE", "POLYNOMIAL" })
+	public Trig trig;
+
+	private final Vect mPivot = new Vect(3, -2);
+	private final Vect mOther = new Vect(-1.5, 4.25);
+	private final Vect mOut = new Vect();
+	private Vect mV;
+	private double mAngle;
+
+	@Setup
+	public void setUp() {
+		Vect.setTrig(trig);
+		mV = new Vect(12.5, 7.75);
+		mAngle = 0.7;
+	}
+
+	@Benchmark
+	public Vect rotate() {
+		return mV.rotate(mPivot, mAngle);
+	}
+
+	@Benchmark
+	public Vect rotateInto() {
+		return mV.rotateInto(mPivot, mAngle, mOut);
+	}
+
+	@Benchmark
+	public double angle() {
+		return mV.angle(mOther);
+	}
+
+	@Benchmark
+	public Vect normalize() {
+		return mV.normalize();
+	}
+
+	@Benchmark
+	public Vect normalizeLocal() {
+		return mOut.set(mV).normalizeLocal();
+	}
+
+	@Benchmark
+	public Vect scale() {
+		return mV.scale(mPivot, 1.5);
+	}
+
+	@Benchmark
+	public Vect scaleInto() {
+		return mV.scaleInto(mPivot, 1.5, mOut);
+	}
+
+	@Benchmark
+	public Vect shear() {
+		return mV.shear(mPivot, 1.5, 0.5);
+	}
+
+	@Benchmark
+	public Vect shearInto() {
+		return mV.shearInto(mPivot, 1.5, 0.5, mOut);
+	}
+}
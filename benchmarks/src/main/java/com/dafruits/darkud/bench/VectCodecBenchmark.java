@@ -0,0 +1,94 @@
+package com.dafruits.darkud.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.dafruits.darkud.Vect;
+import com.dafruits.darkud.VectBuffer;
+import com.dafruits.darkud.VectCodec;
+
+/*
+ * VectCodec against Serializable for an array of points. The size of each
+ * form is printed by setUp, the allocations of each side are in
+ * gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class VectCodecBenchmark {
+
+	@Param({ "1000" })
+	public int points;
+
+	private Vect[] mPoints;
+	private final VectBuffer mBuffer = new VectBuffer();
+	private ByteBuffer mBytes;
+	private byte[] mSerialized;
+
+	@Setup
+	public void setUp() throws IOException {
+		mPoints = new Vect[points];
+		for (int i = 0; i < points; i++) {
+			mPoints[i] = new Vect(i * 0.5, -i / 3d);
+		}
+
+		mBytes = ByteBuffer.allocate(VectCodec.size(points, false));
+		VectCodec.write(mBytes, mPoints);
+		mSerialized = serialize().toByteArray();
+
+		System.out.println("VectCodec: " + mBytes.position() + " bytes, Serializable: " + mSerialized.length + " bytes");
+	}
+
+	@Benchmark
+	public ByteBuffer write() {
+		mBytes.clear();
+		VectCodec.write(mBytes, mPoints);
+		return mBytes;
+	}
+
+	@Benchmark
+	public Vect[] read() {
+		mBytes.rewind();
+		return VectCodec.readVects(mBytes);
+	}
+
+	@Benchmark
+	public VectBuffer readInto() {
+		// no Vect allocated, the buffer keeps its arrays between calls
+		mBytes.rewind();
+		return VectCodec.read(mBytes, mBuffer);
+	}
+
+	@Benchmark
+	public ByteArrayOutputStream writeSerializable() throws IOException {
+		return serialize();
+	}
+
+	@Benchmark
+	public Vect[] readSerializable() throws IOException, ClassNotFoundException {
+		final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(mSerialized));
+		return (Vect[]) in.readObject();
+	}
+
+	private ByteArrayOutputStream serialize() throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(mPoints);
+		out.close();
+		return bytes;
+	}
+}
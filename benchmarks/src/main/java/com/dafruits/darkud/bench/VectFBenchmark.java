@@ -0,0 +1,133 @@
+package com.dafruits.darkud.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.dafruits.darkud.Trig;
+import com.dafruits.darkud.Vect;
+import com.dafruits.darkud.VectF;
+
+/*
+ * Vect against VectF: the same operations, the memory a set of points
+ * takes (see gc.alloc.rate.norm of allocatePoints) and the copy of points
+ * into the float[] Canvas.drawLines takes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class VectFBenchmark {
+
+	@Param({ "EXACT", "TABLE" })
+	public Trig trig;
+
+	@Param({ "100" })
+	public int points;
+
+	private final Vect mPivot = new Vect(3, -2);
+	private final Vect mV = new Vect(12.5, 7.75);
+	private final Vect mOut = new Vect();
+
+	private final VectF mPivotF = new VectF(3, -2);
+	private final VectF mVF = new VectF(12.5f, 7.75f);
+	private final VectF mOutF = new VectF();
+
+	private Vect[] mPoints;
+	private VectF[] mPointsF;
+	private float[] mLines;
+
+	@Setup
+	public void setUp() {
+		Vect.setTrig(trig);
+
+		mPoints = allocatePoints();
+		mPointsF = allocatePointsF();
+		mLines = new float[points * 2];
+	}
+
+	@Benchmark
+	public Vect rotate() {
+		return mV.rotate(mPivot, 0.7);
+	}
+
+	@Benchmark
+	public VectF rotateF() {
+		return mVF.rotate(mPivotF, 0.7);
+	}
+
+	@Benchmark
+	public Vect rotateInto() {
+		return mV.rotateInto(mPivot, 0.7, mOut);
+	}
+
+	@Benchmark
+	public VectF rotateIntoF() {
+		return mVF.rotateInto(mPivotF, 0.7, mOutF);
+	}
+
+	@Benchmark
+	public Vect normalize() {
+		return mV.normalize();
+	}
+
+	@Benchmark
+	public VectF normalizeF() {
+		return mVF.normalize();
+	}
+
+	@Benchmark
+	public Vect scaleInto() {
+		return mV.scaleInto(mPivot, 1.5, mOut);
+	}
+
+	@Benchmark
+	public VectF scaleIntoF() {
+		return mVF.scaleInto(mPivotF, 1.5f, mOutF);
+	}
+
+	@Benchmark
+	public Vect[] allocatePoints() {
+		final Vect[] result = new Vect[points];
+		for (int i = 0; i < points; i++) {
+			result[i] = new Vect(i, -i);
+		}
+		return result;
+	}
+
+	@Benchmark
+	public VectF[] allocatePointsF() {
+		final VectF[] result = new VectF[points];
+		for (int i = 0; i < points; i++) {
+			result[i] = new VectF(i, -i);
+		}
+		return result;
+	}
+
+	@Benchmark
+	public float[] toLines() {
+		// what the rendering path does with double points
+		final float[] lines = mLines;
+		for (int i = 0, j = 0; i < points; i++) {
+			lines[j++] = (float) mPoints[i].x;
+			lines[j++] = (float) mPoints[i].y;
+		}
+		return lines;
+	}
+
+	@Benchmark
+	public float[] toLinesF() {
+		final float[] lines = mLines;
+		for (int i = 0, j = 0; i < points; i++) {
+			lines[j++] = mPointsF[i].x;
+			lines[j++] = mPointsF[i].y;
+		}
+		return lines;
+	}
+}
@@ -0,0 +1,78 @@
+package com.dafruits.android.library.widgets;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ScrollGeometryTest {
+
+	private final ScrollGeometry mGeometry = new ScrollGeometry();
+
+	@Test
+	public void emptyRangeGivesEmptyThumb() {
+		mGeometry.compute(0, 100, 10, 800, 10);
+		assertEquals(0, mGeometry.getThumbLength());
+		assertEquals(0, mGeometry.getThumbOffset());
+
+		mGeometry.compute(-5, 100, 10, 800, 10);
+		assertEquals(0, mGeometry.getThumbLength());
+		assertEquals(0, mGeometry.getThumbOffset());
+	}
+
+	@Test
+	public void rangeEqualToExtentFillsTheBar() {
+		mGeometry.compute(500, 500, 0, 800, 10);
+		assertEquals(800, mGeometry.getThumbLength());
+		assertEquals(0, mGeometry.getThumbOffset());
+		assertEquals(400, mGeometry.getThumbCenter());
+	}
+
+	@Test
+	public void rangeSmallerThanExtentStaysAtTheTop() {
+		mGeometry.compute(400, 500, 20, 800, 10);
+		assertEquals(1000, mGeometry.getThumbLength());
+		assertEquals(0, mGeometry.getThumbOffset());
+	}
+
+	@Test
+	public void minimumLengthDoesNotMoveTheOffset() {
+		// the real thumb would be 1px long, the drawn one is 2 * thickness
+		mGeometry.compute(10000, 10, 9990, 1000, 10);
+		assertEquals(20, mGeometry.getThumbLength());
+		assertEquals(999, mGeometry.getThumbOffset());
+		assertEquals(1009, mGeometry.getThumbCenter());
+	}
+
+	@Test
+	public void matchesTheFormulaOnScrollUsedInline() {
+		final Random random = new Random(42);
+
+		for (int i = 0; i < 100000; i++) {
+			final int height = 1 + random.nextInt(2000);
+			final int range = 2 + random.nextInt(100000);
+			final int extent = 1 + random.nextInt(range - 1);
+			final int offset = random.nextInt(range - extent + 1);
+			final int thickness = random.nextInt(30);
+
+			mGeometry.compute(range, extent, offset, height, thickness);
+			assertEquals(inlineThumbCenter(range, extent, offset, height, thickness), mGeometry.getThumbCenter());
+		}
+	}
+
+	/*
+	 * ExtendedListView.onScroll before ScrollGeometry, itself from
+	 * ScrollBarDrawable
+	 */
+	private static int inlineThumbCenter(int range, int extent, int offset, int measuredHeight, int thickness) {
+		int height = Math.round((float) measuredHeight * extent / range);
+		int thumbOffset = Math.round((float) (measuredHeight - height) * offset / (range - extent));
+		final int minLength = thickness * 2;
+		if (height < minLength) {
+			height = minLength;
+		}
+		thumbOffset += height / 2;
+		return thumbOffset;
+	}
+}
@@ -0,0 +1,162 @@
+package com.dafruits.darkud;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+
+/*
+ * The maximum errors documented in the header of Trig, and Vect.angle
+ * against the normalize, perp and acos loop it replaced.
+ */
+public class TrigTest {
+
+	private static final int SAMPLES = 1000000;
+
+	// error bounds from the header of Trig
+	private static final double TABLE_SIN_COS = 3e-7;
+	private static final double POLYNOMIAL_SIN_COS = 1e-7;
+	private static final double ATAN2 = 1.2e-5;
+
+	@After
+	public void tearDown() {
+		Vect.setTrig(Trig.EXACT);
+	}
+
+	@Test
+	public void tableSinCosStayWithinBounds() {
+		assertSinCos(Trig.TABLE, TABLE_SIN_COS);
+	}
+
+	@Test
+	public void polynomialSinCosStayWithinBounds() {
+		assertSinCos(Trig.POLYNOMIAL, POLYNOMIAL_SIN_COS);
+	}
+
+	@Test
+	public void tableAtan2StaysWithinBounds() {
+		assertAtan2(Trig.TABLE);
+	}
+
+	@Test
+	public void polynomialAtan2StaysWithinBounds() {
+		assertAtan2(Trig.POLYNOMIAL);
+	}
+
+	@Test
+	public void angleMatchesThePreviousComputation() {
+		final Random random = new Random(42);
+
+		for (Trig trig : Trig.values()) {
+			Vect.setTrig(trig);
+			// acos loses precision near 0 and PI, atan2 of the approximations adds its own error
+			final double delta = trig == Trig.EXACT ? 1e-7 : ATAN2 + 1e-7;
+
+			for (int i = 0; i < SAMPLES / 10; i++) {
+				final Vect a = new Vect(random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100);
+				final Vect b = new Vect(random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100);
+
+				final double expected = previousAngle(a, b);
+				if (Math.abs(expected + Math.PI / 2) < 1e-4 || Math.abs(expected - 3 * Math.PI / 2) < 1e-4) {
+					// both ends of the range are the same angle, rounding picks one or the other
+					continue;
+				}
+				final double angle = a.angle(b);
+				if (!(Math.abs(expected - angle) <= delta)) {
+					fail(trig + " angle of " + a + " and " + b + ": expected " + expected + " but was " + angle);
+				}
+			}
+		}
+	}
+
+	private static void assertSinCos(Trig trig, double delta) {
+		final Random random = new Random(42);
+		final double[] pair = new double[2];
+		final Vect vect = new Vect();
+
+		for (int i = 0; i < SAMPLES; i++) {
+			// several turns both ways, the range reduction is part of what we check
+			final double angle = (random.nextDouble() * 2 - 1) * 8 * Math.PI;
+			final double sin = Math.sin(angle);
+			final double cos = Math.cos(angle);
+
+			assertClose(trig, "sin", angle, sin, trig.sin(angle), delta);
+			assertClose(trig, "cos", angle, cos, trig.cos(angle), delta);
+
+			trig.sinCos(angle, pair);
+			assertClose(trig, "sinCos", angle, cos, pair[0], delta);
+			assertClose(trig, "sinCos", angle, sin, pair[1], delta);
+
+			trig.sinCos(angle, vect);
+			assertClose(trig, "sinCos", angle, cos, vect.x, delta);
+			assertClose(trig, "sinCos", angle, sin, vect.y, delta);
+		}
+	}
+
+	private static void assertAtan2(Trig trig) {
+		final Random random = new Random(42);
+
+		for (int i = 0; i < SAMPLES; i++) {
+			final double y = random.nextDouble() * 2 - 1;
+			final double x = random.nextDouble() * 2 - 1;
+			final double atan2 = trig.atan2(y, x);
+			if (!(Math.abs(Math.atan2(y, x) - atan2) <= ATAN2)) {
+				fail(trig + " atan2 " + y + "," + x + ": expected " + Math.atan2(y, x) + " but was " + atan2);
+			}
+		}
+
+		// the axes and the diagonals
+		for (int i = 0; i < 8; i++) {
+			final double y = Math.sin(i * Math.PI / 4);
+			final double x = Math.cos(i * Math.PI / 4);
+			assertEquals(trig + " atan2 " + y + "," + x, Math.atan2(y, x), trig.atan2(y, x), ATAN2);
+		}
+	}
+
+	/*
+	 * assertEquals building its message only when it fails, it runs millions
+	 * of times
+	 */
+	private static void assertClose(Trig trig, String function, double value, double expected, double actual,
+			double delta) {
+		if (!(Math.abs(expected - actual) <= delta)) {
+			fail(trig + " " + function + " " + value + ": expected " + expected + " but was " + actual);
+		}
+	}
+
+	/*
+	 * Vect.angle before atan2, on plain doubles
+	 */
+	private static double previousAngle(Vect a, Vect b) {
+		final double la = Math.sqrt(a.x * a.x + a.y * a.y);
+		final double lb = Math.sqrt(b.x * b.x + b.y * b.y);
+		final double ax = a.x / la;
+		final double ay = a.y / la;
+		double bx = b.x / lb;
+		double by = b.y / lb;
+
+		double add = 0;
+		while (ax * bx + ay * by < 0) {
+			final double t = bx;
+			bx = -by;
+			by = t;
+			add += Math.PI / 2;
+		}
+
+		double angle = Math.acos(ax * bx + ay * by) + add;
+
+		if (add == 0) {
+			final double t = bx;
+			bx = -by;
+			by = t;
+			if (ax * bx + ay * by < 0) {
+				angle = -angle;
+			}
+		}
+
+		return angle;
+	}
+}
@@ -0,0 +1,171 @@
+package com.dafruits.darkud;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+public class VectCodecTest {
+
+	private static final int COUNT = 1000;
+
+	@Test
+	public void roundTripsVect() {
+		final ByteBuffer buffer = ByteBuffer.allocate(VectCodec.VECT_BYTES);
+		VectCodec.write(buffer, new Vect(12.5, -Math.PI));
+		assertEquals(VectCodec.VECT_BYTES, buffer.position());
+
+		buffer.flip();
+		final Vect v = VectCodec.read(buffer, new Vect());
+		assertEquals(12.5, v.x, 0);
+		assertEquals(-Math.PI, v.y, 0);
+		assertEquals(0, buffer.remaining());
+	}
+
+	@Test
+	public void roundTripsVectF() {
+		final ByteBuffer buffer = ByteBuffer.allocate(VectCodec.VECTF_BYTES);
+		VectCodec.write(buffer, new VectF(12.5f, -7.25f));
+		assertEquals(VectCodec.VECTF_BYTES, buffer.position());
+
+		buffer.flip();
+		final VectF v = VectCodec.read(buffer, new VectF());
+		assertEquals(12.5f, v.x, 0);
+		assertEquals(-7.25f, v.y, 0);
+	}
+
+	@Test
+	public void roundTripsVectArray() {
+		final Vect[] points = points();
+		final ByteBuffer buffer = ByteBuffer.allocate(VectCodec.size(COUNT, false));
+		VectCodec.write(buffer, points);
+		assertEquals(0, buffer.remaining());
+
+		buffer.flip();
+		final Vect[] read = VectCodec.readVects(buffer);
+		assertEquals(COUNT, read.length);
+		assertVects(points, 0, read);
+		assertEquals(0, buffer.remaining());
+	}
+
+	@Test
+	public void roundTripsVectArrayRange() {
+		final Vect[] points = points();
+		final ByteBuffer buffer = ByteBuffer.allocate(VectCodec.size(10, false));
+		VectCodec.write(buffer, points, 20, 10);
+
+		buffer.flip();
+		final Vect[] read = VectCodec.readVects(buffer);
+		assertEquals(10, read.length);
+		assertVects(points, 20, read);
+	}
+
+	@Test
+	public void roundTripsInEitherByteOrder() {
+		final Vect[] points = points();
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(VectCodec.size(COUNT, false) + 4).order(ByteOrder.LITTLE_ENDIAN);
+		// an odd position, the double views don't need an aligned one
+		buffer.put((byte) 1);
+		VectCodec.write(buffer, points);
+
+		buffer.flip();
+		buffer.get();
+		assertVects(points, 0, VectCodec.readVects(buffer));
+	}
+
+	@Test
+	public void roundTripsVectBuffer() {
+		final VectBuffer points = new VectBuffer(COUNT);
+		for (int i = 0; i < COUNT; i++) {
+			points.add(i * 0.5, -i / 3d);
+		}
+
+		final ByteBuffer buffer = ByteBuffer.allocate(VectCodec.size(COUNT, false));
+		VectCodec.write(buffer, points);
+
+		buffer.flip();
+		// the previous content of out is dropped
+		final VectBuffer read = VectCodec.read(buffer, new VectBuffer().add(1, 1));
+		assertEquals(COUNT, read.size());
+		for (int i = 0; i < COUNT; i++) {
+			assertEquals(points.getX(i), read.getX(i), 0);
+			assertEquals(points.getY(i), read.getY(i), 0);
+		}
+	}
+
+	@Test
+	public void roundTripsFloatArray() {
+		final float[] lines = new float[COUNT * 2];
+		for (int i = 0; i < lines.length; i++) {
+			lines[i] = i * 0.25f;
+		}
+
+		final ByteBuffer buffer = ByteBuffer.allocate(VectCodec.size(COUNT - 1, true));
+		VectCodec.write(buffer, lines, 1, COUNT - 1);
+		assertEquals(0, buffer.remaining());
+
+		buffer.flip();
+		final float[] read = VectCodec.readFloats(buffer);
+		assertEquals((COUNT - 1) * 2, read.length);
+		for (int i = 0; i < read.length; i++) {
+			assertEquals(lines[i + 1], read[i], 0);
+		}
+	}
+
+	@Test
+	public void packsAndUnpacks() {
+		final Vect[] points = points();
+		final double[] packed = VectCodec.pack(points, 0, COUNT, null);
+		assertEquals(COUNT * 2, packed.length);
+		assertVects(points, 0, VectCodec.unpack(packed, COUNT));
+
+		// a big enough array is reused
+		assertTrue(packed == VectCodec.pack(points, 10, 5, packed));
+
+		final VectBuffer buffer = VectCodec.unpack(packed, 5, new VectBuffer());
+		assertArrayEquals(new double[] { points[10].x, points[10].y }, new double[] { buffer.getX(0), buffer.getY(0) }, 0);
+		assertEquals(5, buffer.size());
+	}
+
+	@Test
+	public void isSmallerThanSerializable() throws IOException, ClassNotFoundException {
+		final Vect[] points = points();
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(points);
+		out.close();
+
+		final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		assertVects(points, 0, (Vect[]) in.readObject());
+
+		// 4 + 1000 * 16 against the class description and a handle per Vect
+		assertEquals(16004, VectCodec.size(COUNT, false));
+		assertTrue(bytes.size() > VectCodec.size(COUNT, false) * 4 / 3);
+	}
+
+	private static Vect[] points() {
+		final Vect[] points = new Vect[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			points[i] = new Vect(i * 0.5, -i / 3d);
+		}
+		return points;
+	}
+
+	private static void assertVects(Vect[] expected, int offset, Vect[] actual) {
+		assertTrue(offset + actual.length <= expected.length);
+		for (int i = 0; i < actual.length; i++) {
+			assertEquals(expected[offset + i].x, actual[i].x, 0);
+			assertEquals(expected[offset + i].y, actual[i].y, 0);
+		}
+	}
+}
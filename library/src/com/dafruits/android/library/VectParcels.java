@@ -0,0 +1,46 @@
+package com.dafruits.android.library;
+
+import android.os.Parcel;
+
+import com.dafruits.darkud.Vect;
+import com.dafruits.darkud.VectBuffer;
+import com.dafruits.darkud.VectCodec;
+
+/**
+ * Writes geometry to a {@link Parcel} (saved state, intents) as one packed
+ * double array instead of serialized {@link Vect} objects. Layout is the
+ * one of {@link VectCodec}: the number of points then x0,y0,x1,y1...
+ */
+public final class VectParcels {
+
+	private VectParcels() {
+	}
+
+	public static void writeVects(Parcel dest, Vect[] points) {
+		// a single array write, the parcel copies it in one go
+		dest.writeDoubleArray(VectCodec.pack(points, 0, points.length, null));
+	}
+
+	public static Vect[] readVects(Parcel source) {
+		final double[] packed = source.createDoubleArray();
+		return VectCodec.unpack(packed, packed.length / 2);
+	}
+
+	public static void writeVectBuffer(Parcel dest, VectBuffer points) {
+		dest.writeDoubleArray(VectCodec.pack(points, null));
+	}
+
+	public static VectBuffer readVectBuffer(Parcel source, VectBuffer out) {
+		final double[] packed = source.createDoubleArray();
+		return VectCodec.unpack(packed, packed.length / 2, out);
+	}
+
+	public static void writePoints(Parcel dest, float[] points) {
+		// points laid out for Canvas go as they are
+		dest.writeFloatArray(points);
+	}
+
+	public static float[] readPoints(Parcel source) {
+		return source.createFloatArray();
+	}
+}
@@ -0,0 +1,91 @@
+package com.dafruits.android.library.widgets;
+
+import java.util.ArrayList;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/*
+ * Pool of mutable bitmaps nobody uses anymore, so the next bitmap of the
+ * same size and config can be drawn into one of them instead of being
+ * allocated.
+ *
+ * Bitmaps are only recycled once the pool is full.
+ */
+class BitmapPool {
+
+	private static final int DEFAULT_POOL_SIZE = 256 * 1024;
+
+	private static int sMaxBytes = DEFAULT_POOL_SIZE;
+	private static int sBytes = 0;
+
+	private static final ArrayList<Bitmap> sPool = new ArrayList<Bitmap>();
+
+	public static synchronized void setPoolSize(int maxBytes) {
+		sMaxBytes = maxBytes;
+		while (sBytes > sMaxBytes && !sPool.isEmpty()) {
+			final Bitmap bitmap = sPool.remove(0);
+			sBytes -= bitmap.getRowBytes() * bitmap.getHeight();
+			bitmap.recycle();
+		}
+	}
+
+	/**
+	 * Returns a cleared mutable bitmap, taken from the pool if one matches.
+	 */
+	public static Bitmap obtain(int width, int height, Bitmap.Config config) {
+		synchronized (BitmapPool.class) {
+			for (int i = sPool.size() - 1; i >= 0; i--) {
+				final Bitmap bitmap = sPool.get(i);
+				if (bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config) {
+					sPool.remove(i);
+					sBytes -= bitmap.getRowBytes() * bitmap.getHeight();
+					bitmap.eraseColor(0);
+					return bitmap;
+				}
+			}
+		}
+
+		return Bitmap.createBitmap(width, height, config);
+	}
+
+	/**
+	 * Gives back a bitmap which must not be used anymore by the caller.
+	 */
+	public static synchronized void release(Bitmap bitmap) {
+		if (bitmap == null || bitmap.isRecycled()) {
+			return;
+		}
+
+		final int bytes = bitmap.getRowBytes() * bitmap.getHeight();
+		if (!bitmap.isMutable() || bytes > sMaxBytes) {
+			bitmap.recycle();
+			return;
+		}
+
+		// oldest bitmaps make room for the new one
+		while (sBytes + bytes > sMaxBytes && !sPool.isEmpty()) {
+			final Bitmap oldest = sPool.remove(0);
+			sBytes -= oldest.getRowBytes() * oldest.getHeight();
+			oldest.recycle();
+		}
+
+		sPool.add(bitmap);
+		sBytes += bytes;
+	}
+
+	/**
+	 * Draws source scaled to width x height in a bitmap from the pool.
+	 */
+	public static Bitmap scale(Bitmap source, int width, int height, Bitmap.Config config) {
+		final Bitmap scaled = obtain(width, height, config);
+		final Canvas canvas = new Canvas(scaled);
+		final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+		canvas.drawBitmap(source, null, new Rect(0, 0, width, height), paint);
+
+		return scaled;
+	}
+}
@@ -0,0 +1,106 @@
+package com.dafruits.android.library.widgets;
+
+import java.util.ArrayList;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+/*
+ * Pre-scaled levels of a bitmap resource, each one half the size of the
+ * previous one.
+ *
+ * The first level is decoded with the biggest sample size still covering
+ * the size asked for, so the full size resource is only kept when needed.
+ * Scaling from the closest level never shrinks more than 2x, which keeps
+ * the bilinear filter from skipping pixels.
+ */
+class BitmapPyramid {
+
+	private static final int MIN_LEVEL_SIZE = 8;
+
+	private final Bitmap[] mLevels;
+	private final int mSampleSize;
+	private final int mBytes;
+
+	private BitmapPyramid(Bitmap[] levels, int sampleSize) {
+		mLevels = levels;
+		mSampleSize = sampleSize;
+
+		int bytes = 0;
+		for (Bitmap level : levels) {
+			bytes += level.getRowBytes() * level.getHeight();
+		}
+		mBytes = bytes;
+	}
+
+	/**
+	 * Decodes the resource and builds the levels down from the first one
+	 * at least size x size. Returns null if the resource can't be decoded.
+	 */
+	public static BitmapPyramid decode(Resources res, int resId, int size) {
+		final BitmapFactory.Options options = new BitmapFactory.Options();
+		options.inScaled = false;
+		options.inJustDecodeBounds = true;
+		BitmapFactory.decodeResource(res, resId, options);
+
+		// largest power of 2 keeping both dimensions above the size we need
+		int sampleSize = 1;
+		while (options.outWidth / (sampleSize * 2) >= size && options.outHeight / (sampleSize * 2) >= size) {
+			sampleSize *= 2;
+		}
+
+		options.inSampleSize = sampleSize;
+		options.inJustDecodeBounds = false;
+
+		Bitmap level = BitmapFactory.decodeResource(res, resId, options);
+		if (level == null) {
+			return null;
+		}
+
+		final ArrayList<Bitmap> levels = new ArrayList<Bitmap>();
+		levels.add(level);
+
+		while (level.getWidth() / 2 >= MIN_LEVEL_SIZE && level.getHeight() / 2 >= MIN_LEVEL_SIZE) {
+			level = Bitmap.createScaledBitmap(level, level.getWidth() / 2, level.getHeight() / 2, true);
+			levels.add(level);
+		}
+
+		return new BitmapPyramid(levels.toArray(new Bitmap[levels.size()]), sampleSize);
+	}
+
+	/**
+	 * Whether a level of this pyramid is big enough for size, or at least as
+	 * big as the resource itself.
+	 */
+	public boolean covers(int size) {
+		return mSampleSize == 1 || (mLevels[0].getWidth() >= size && mLevels[0].getHeight() >= size);
+	}
+
+	/**
+	 * Returns the smallest level at least size x size, the first level if
+	 * none is.
+	 */
+	public Bitmap getLevel(int size) {
+		for (int i = mLevels.length - 1; i > 0; i--) {
+			final Bitmap level = mLevels[i];
+			if (level.getWidth() >= size && level.getHeight() >= size) {
+				return level;
+			}
+		}
+		return mLevels[0];
+	}
+
+	public int getByteCount() {
+		return mBytes;
+	}
+
+	/**
+	 * Frees the pixels of every level, the pyramid can't be used after.
+	 */
+	public void recycle() {
+		for (Bitmap level : mLevels) {
+			level.recycle();
+		}
+	}
+}
@@ -0,0 +1,305 @@
+package com.dafruits.android.library.widgets;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.os.AsyncTask;
+
+/*
+ * Process wide cache of the round counter backgrounds, decoded and scaled
+ * once for a given resource, size and density.
+ *
+ * Bitmaps are reference counted: a bitmap in use is never evicted, unused
+ * ones are kept until the cache goes over its size and then go back to the
+ * BitmapPool, least recently used first.
+ *
+ * Decoding and scaling happen on a background thread, the UI thread only
+ * gets notified once the bitmap is ready. Bitmaps are scaled from the
+ * closest level of a pyramid kept per resource, so another size of the
+ * same resource doesn't need to decode it again. Pyramids count the tasks
+ * scaling from them and are recycled once evicted and unused.
+ *
+ * A bitmap can also be asked as a mask, keeping only its alpha channel
+ * (ALPHA_8, a quarter of the memory) so it can be tinted when drawn.
+ */
+class CounterBitmapCache {
+
+	public static interface OnBitmapLoadedListener {
+
+		public void onBitmapLoaded(Bitmap bitmap);
+
+	}
+
+	private static final int DEFAULT_CACHE_SIZE = 1024 * 1024;
+
+	private static int sMaxBytes = DEFAULT_CACHE_SIZE;
+	private static int sBytes = 0;
+
+	// access ordered so the first entries are the least recently used
+	private static final LinkedHashMap<Key, Entry> sCache = new LinkedHashMap<Key, Entry>(8, 0.75f, true);
+	private static final LinkedHashMap<Key, Pyramid> sPyramids = new LinkedHashMap<Key, Pyramid>(4, 0.75f, true);
+
+	public static synchronized void setCacheSize(int maxBytes) {
+		sMaxBytes = maxBytes;
+		trimToSize();
+	}
+
+	/**
+	 * Returns the resource scaled to size x size, or null if it is still
+	 * loading. In that case listener is called on the UI thread once the
+	 * bitmap is ready. Every call must be balanced with a call to
+	 * {@link #release(Resources, int, int, boolean, OnBitmapLoadedListener)}.
+	 */
+	public static synchronized Bitmap acquire(Resources res, int resId, int size, boolean mask,
+			OnBitmapLoadedListener listener) {
+		final Key key = new Key(resId, size, res.getDisplayMetrics().densityDpi, mask);
+
+		Entry entry = sCache.get(key);
+		if (entry == null) {
+			entry = new Entry();
+			sCache.put(key, entry);
+			new LoadTask(res, key).execute();
+		} else if (entry.mFailed) {
+			// the users of the failed load keep their fallback, we try again for this one
+			entry.mFailed = false;
+			new LoadTask(res, key).execute();
+		}
+
+		entry.mRefCount++;
+
+		if (entry.mBitmap == null) {
+			entry.mListeners.add(listener);
+		}
+
+		return entry.mBitmap;
+	}
+
+	public static synchronized void release(Resources res, int resId, int size, boolean mask,
+			OnBitmapLoadedListener listener) {
+		final Key key = new Key(resId, size, res.getDisplayMetrics().densityDpi, mask);
+		final Entry entry = sCache.get(key);
+		if (entry != null && entry.mRefCount > 0) {
+			entry.mRefCount--;
+			entry.mListeners.remove(listener);
+
+			if (entry.mRefCount == 0 && entry.mFailed) {
+				// nobody holds it anymore, the next acquire starts from scratch
+				sCache.remove(key);
+			}
+			trimToSize();
+		}
+	}
+
+	private static void onLoaded(Key key, Bitmap bitmap) {
+		final OnBitmapLoadedListener[] listeners;
+
+		synchronized (CounterBitmapCache.class) {
+			final Entry entry = sCache.get(key);
+			if (entry == null) {
+				return;
+			}
+
+			if (bitmap == null) {
+				/*
+				 * nothing to share, users keep their fallback. The entry stays
+				 * until they all released it, a new entry for the key would get
+				 * their releases
+				 */
+				if (entry.mRefCount == 0) {
+					sCache.remove(key);
+				} else {
+					entry.mFailed = true;
+				}
+			} else {
+				entry.mBitmap = bitmap;
+				entry.mBytes = bitmap.getRowBytes() * bitmap.getHeight();
+				sBytes += entry.mBytes;
+			}
+
+			// listeners may acquire or release bitmaps, so we work on a copy
+			listeners = entry.mListeners.toArray(new OnBitmapLoadedListener[entry.mListeners.size()]);
+			entry.mListeners.clear();
+		}
+
+		/*
+		 * called without the lock: a listener may render an atlas, loading
+		 * tasks must not wait for it to get to their pyramid
+		 */
+		for (OnBitmapLoadedListener listener : listeners) {
+			listener.onBitmapLoaded(bitmap);
+		}
+
+		synchronized (CounterBitmapCache.class) {
+			trimToSize();
+		}
+	}
+
+	private static Bitmap decode(Resources res, int resId, int size, int density, boolean mask) {
+		if (size <= 0) {
+			return null;
+		}
+
+		final Pyramid pyramid = acquirePyramid(res, resId, size, density);
+		if (pyramid == null) {
+			return null;
+		}
+
+		try {
+			// a mask is drawn straight into an alpha only bitmap
+			return BitmapPool.scale(pyramid.mPyramid.getLevel(size), size, size,
+					mask ? Bitmap.Config.ALPHA_8 : Bitmap.Config.ARGB_8888);
+		} finally {
+			releasePyramid(pyramid);
+		}
+	}
+
+	/*
+	 * returns a pyramid covering size, counted as used until releasePyramid
+	 */
+	private static Pyramid acquirePyramid(Resources res, int resId, int size, int density) {
+		final Key key = new Key(resId, 0, density, false);
+
+		synchronized (CounterBitmapCache.class) {
+			final Pyramid pyramid = sPyramids.get(key);
+			if (pyramid != null && pyramid.mPyramid.covers(size)) {
+				pyramid.mUsers++;
+				return pyramid;
+			}
+		}
+
+		final BitmapPyramid decoded = BitmapPyramid.decode(res, resId, size);
+		if (decoded == null) {
+			return null;
+		}
+
+		synchronized (CounterBitmapCache.class) {
+			final Pyramid pyramid = new Pyramid(decoded);
+			pyramid.mUsers = 1;
+
+			final Pyramid previous = sPyramids.put(key, pyramid);
+			if (previous != null) {
+				sBytes -= previous.mPyramid.getByteCount();
+				dropPyramid(previous);
+			}
+			sBytes += decoded.getByteCount();
+			trimToSize();
+			return pyramid;
+		}
+	}
+
+	private static synchronized void releasePyramid(Pyramid pyramid) {
+		pyramid.mUsers--;
+		if (!pyramid.mCached && pyramid.mUsers == 0) {
+			pyramid.mPyramid.recycle();
+		}
+	}
+
+	private static void dropPyramid(Pyramid pyramid) {
+		// out of the cache, recycled right now unless a task still scales from it
+		pyramid.mCached = false;
+		if (pyramid.mUsers == 0) {
+			pyramid.mPyramid.recycle();
+		}
+	}
+
+	private static void trimToSize() {
+		final Iterator<Map.Entry<Key, Entry>> it = sCache.entrySet().iterator();
+		while (sBytes > sMaxBytes && it.hasNext()) {
+			final Entry entry = it.next().getValue();
+			if (entry.mRefCount == 0 && entry.mBitmap != null) {
+				it.remove();
+				sBytes -= entry.mBytes;
+				BitmapPool.release(entry.mBitmap);
+			}
+		}
+
+		// pyramids are only needed to scale new sizes, they go next
+		final Iterator<Pyramid> pyramids = sPyramids.values().iterator();
+		while (sBytes > sMaxBytes && pyramids.hasNext()) {
+			final Pyramid pyramid = pyramids.next();
+			pyramids.remove();
+			sBytes -= pyramid.mPyramid.getByteCount();
+			dropPyramid(pyramid);
+		}
+	}
+
+	private static final class LoadTask extends AsyncTask<Void, Void, Bitmap> {
+
+		private final Resources mResources;
+		private final Key mKey;
+
+		LoadTask(Resources res, Key key) {
+			mResources = res;
+			mKey = key;
+		}
+
+		@Override
+		protected Bitmap doInBackground(Void... params) {
+			return decode(mResources, mKey.mResId, mKey.mSize, mKey.mDensity, mKey.mMask);
+		}
+
+		@Override
+		protected void onPostExecute(Bitmap result) {
+			onLoaded(mKey, result);
+		}
+	}
+
+	private static final class Entry {
+
+		private Bitmap mBitmap = null;
+		private int mBytes = 0;
+		private int mRefCount = 0;
+		// the last load gave no bitmap
+		private boolean mFailed = false;
+		private final ArrayList<OnBitmapLoadedListener> mListeners = new ArrayList<OnBitmapLoadedListener>(1);
+	}
+
+	private static final class Pyramid {
+
+		private final BitmapPyramid mPyramid;
+		// loading tasks scaling from it right now
+		private int mUsers = 0;
+		private boolean mCached = true;
+
+		Pyramid(BitmapPyramid pyramid) {
+			mPyramid = pyramid;
+		}
+	}
+
+	private static final class Key {
+
+		private final int mResId;
+		private final int mSize;
+		private final int mDensity;
+		private final boolean mMask;
+
+		Key(int resId, int size, int density, boolean mask) {
+			mResId = resId;
+			mSize = size;
+			mDensity = density;
+			mMask = mask;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			final Key k = (Key) o;
+			return mResId == k.mResId && mSize == k.mSize && mDensity == k.mDensity && mMask == k.mMask;
+		}
+
+		@Override
+		public int hashCode() {
+			int h = mResId;
+			h = 31 * h + mSize;
+			h = 31 * h + mDensity;
+			h = 31 * h + (mMask ? 1 : 0);
+			return h;
+		}
+	}
+}
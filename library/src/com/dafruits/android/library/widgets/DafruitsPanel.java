@@ -3,19 +3,29 @@ package com.dafruits.android.library.widgets;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.SystemClock;
 import android.util.AttributeSet;
+import android.view.View;
 import android.widget.TextView;
 
-import com.dafruits.darkud.Vect;
+import com.dafruits.android.library.R;
 
 public class DafruitsPanel extends TextView{
 
+	//Delay between two steps of the round counter animation, about one frame
+	private static final int FRAME_DELAY = 16;
+	//Time the round counter takes to cover most of the way to its new position
+	private static final float SMOOTH_DURATION = 80f;
+
 	private boolean roundCounterEnabled = true;
-	private Bitmap roundCounterBg = null;
+	//The round counter itself is drawn by a ProgressDialDrawable, the panel only gives it its place and level
+	private ProgressDialDrawable roundCounter = null;
+	private int roundCounterBgTint = 0;
 	private int roundCounterPadding = 10;
 	private int roundCounterSize;
 	private float roundCounterHeightRatio;
@@ -23,10 +33,43 @@ public class DafruitsPanel extends TextView{
 	private int Linecolor = Color.GREEN;
 	private float lineAlpha = 1f;
 	
-	private boolean resizedForCounter = false;
+	//Number of lines of a full round counter
+	private int tickCount = ProgressDialDrawable.DEFAULT_TICK_COUNT;
+	
+	//When enabled every state of the round counter is rendered once in a shared atlas
+	//and drawing the counter is just copying the right part of it
+	private boolean atlasEnabled = false;
 	
 	private int position = 0;
 	private int total = 0;
+	//Number of lines shown for the current position, the counter is only drawn again when it changes
+	private int visibleTicks = 0;
+	
+	//The counter moves smoothly to the lines of the position, one step per frame
+	//Any number of position changes during a frame only move the target so it is drawn once per frame at most
+	private int targetTicks = 0;
+	private float animatedTicks = 0;
+	private boolean frameScheduled = false;
+	private long lastFrameTime = 0;
+	private final Handler handler = new Handler();
+	private final Runnable frameRunnable = new Runnable() {
+		
+		@Override
+		public void run() {
+			frameScheduled = false;
+			stepVisibleTicks();
+		}
+	};
+	
+	//Fixed width counter text: prefix followed by a number written in a reused buffer
+	//The width of the widest number is reserved once so changing the number never needs a new layout
+	private char[] counterText = null;
+	private int counterPrefixLength = 0;
+	private int counterTextWidth = -1;
+	private boolean blockLayoutRequests = false;
+	
+	//View drawing this panel without being its parent (see ExtendedListView), it gets our invalidations
+	private View overlayHost = null;
 	
 	public DafruitsPanel(Context context) {
 		this(context,null);		
@@ -46,19 +89,12 @@ public class DafruitsPanel extends TextView{
 		final float size = a.getFloat(R.styleable.DafruitsPanel_RoundCounter_height, 1);
 		Linecolor = a.getInt(R.styleable.DafruitsPanel_RoundCounter_lineColor, Color.GREEN);
 		lineAlpha = a.getFloat(R.styleable.DafruitsPanel_RoundCounter_LineAlpha, 1);
+		tickCount = a.getInt(R.styleable.DafruitsPanel_RoundCounter_tickCount, ProgressDialDrawable.DEFAULT_TICK_COUNT);
+		atlasEnabled = a.getBoolean(R.styleable.DafruitsPanel_RoundCounter_atlas, false);
+		roundCounterBgTint = a.getColor(R.styleable.DafruitsPanel_RoundCounter_bgTint, 0);
 		
 		a.recycle();	
 		
-		if(bgPanelId != -1)
-		{
-			//if a background is provided ...
-			setWidgetBg(bgPanelId);
-		}else
-		{
-			//if not we load a default one
-			setWidgetBg(R.drawable.bg);
-		}
-		
 		if(size < 0)
 		{
 			//No negative attitude tolerated :p
@@ -81,72 +117,385 @@ public class DafruitsPanel extends TextView{
 			//Not too big too
 			lineAlpha = 1f;
 		}
+		
+		if(tickCount < 1)
+		{
+			//We need at least one line to show something
+			tickCount = 1;
+		}
+		
+		if(bgPanelId != -1)
+		{
+			//if a background is provided ...
+			setWidgetBg(bgPanelId);
+		}else
+		{
+			//if not we load a default one
+			setWidgetBg(R.drawable.bg);
+		}
+	}
+	
+	public static void setAtlasCacheSize(int maxBytes)
+	{
+		//Memory shared by all the atlases of the round counters
+		DialAtlas.setCacheSize(maxBytes);
+	}
+	
+	public static void setWidgetBgCacheSize(int maxBytes)
+	{
+		//Memory kept for the backgrounds no panel is using anymore
+		CounterBitmapCache.setCacheSize(maxBytes);
 	}
 	
 	public void setWidgetBg(Bitmap bg)
 	{
-		roundCounterBg = bg;
+		//The bitmap stays the caller s one, the counter only draws a scaled copy of it
+		setRoundCounter(new ProgressDialDrawable(getResources(), bg, Linecolor, (int) (lineAlpha * 255), tickCount));
 	}
 	
 	public void setWidgetBg(int idWidgetBg)
 	{
-		//Inflate the bitmap from it s resource id
-		setWidgetBg(BitmapFactory.decodeResource(getResources(), idWidgetBg));
+		//The resource is decoded and scaled only once for all the panels using it at the same size
+		setRoundCounter(new ProgressDialDrawable(getResources(), idWidgetBg, roundCounterBgTint, Linecolor,
+				(int) (lineAlpha * 255), tickCount, atlasEnabled));
+	}
+	
+	public ProgressDialDrawable getRoundCounter()
+	{
+		return roundCounter;
+	}
+	
+	private void setRoundCounter(ProgressDialDrawable dial)
+	{
+		if(roundCounter != null)
+		{
+			//The old counter gives its bitmaps back right now
+			roundCounter.setCallback(null);
+			roundCounter.setVisible(false, false);
+		}
+		
+		roundCounter = dial;
+		roundCounter.setCallback(this);
+		roundCounter.setLevel(roundCounter.getLevelForTicks(visibleTicks));
+		updateRoundCounterBounds();
+	}
+	
+	private void updateRoundCounterBounds()
+	{
+		//The counter is centered vertically, half its size away from the left
+		final int h = getHeight();
+		final int left = roundCounterSize/2;
+		final int top = (h - roundCounterSize)/2;
+		roundCounter.setBounds(left, top, left + roundCounterSize, top + roundCounterSize);
+	}
+	
+	@Override
+	protected boolean verifyDrawable(Drawable who) {
+		//Lets the counter invalidate only its own bounds
+		return who == roundCounter || super.verifyDrawable(who);
+	}
+	
+	/*
+	 * The scroll bar panel is not a real child of ExtendedListView so it also
+	 * calls these two when the list itself is attached or detached
+	 */
+	void attachRoundCounter()
+	{
+		if(roundCounterEnabled)
+		{
+			roundCounter.setVisible(true, false);
+		}
+	}
+	
+	void detachRoundCounter()
+	{
+		roundCounter.setVisible(false, false);
+		
+		//No need to animate a counter nobody sees, we jump to the end
+		handler.removeCallbacks(frameRunnable);
+		frameScheduled = false;
+		animatedTicks = targetTicks;
+		visibleTicks = targetTicks;
+		roundCounter.setLevel(roundCounter.getLevelForTicks(visibleTicks));
+	}
+	
+	void setOverlayHost(View host)
+	{
+		overlayHost = host;
+	}
+	
+	@Override
+	public void invalidate()
+	{
+		super.invalidate();
+		//Same coordinates as invalidate(int, int, int, int), which include the scroll
+		final int scrollX = getScrollX();
+		final int scrollY = getScrollY();
+		invalidateHost(scrollX, scrollY, scrollX + getWidth(), scrollY + getHeight());
+	}
+	
+	@Override
+	public void invalidate(Rect dirty)
+	{
+		super.invalidate(dirty);
+		invalidateHost(dirty.left, dirty.top, dirty.right, dirty.bottom);
+	}
+	
+	@Override
+	public void invalidate(int l, int t, int r, int b)
+	{
+		super.invalidate(l, t, r, b);
+		invalidateHost(l, t, r, b);
+	}
+	
+	private void invalidateHost(int l, int t, int r, int b)
+	{
+		//Without a parent nobody redraws us, the host only redraws the part we changed
+		if(overlayHost != null && getVisibility() == VISIBLE)
+		{
+			final int x = getLeft() - getScrollX();
+			final int y = getTop() - getScrollY();
+			overlayHost.invalidate(x + l, y + t, x + r, y + b);
+		}
+	}
+	
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		attachRoundCounter();
+	}
+	
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		detachRoundCounter();
 	}
 	
 	public void setPosition(int pos)
 	{
 		//Set the current element
 		position = pos;
+		updateVisibleTicks();
 	}
 	
 	public void setTotal(int total)
 	{
 		//Set the total of elements in the listview
 		this.total = total;
+		updateVisibleTicks();
 	}
-			
+	
+	public void setCounterFormat(String prefix, int maxValue)
+	{
+		//The biggest number we will have to show gives the number of digits to keep room for
+		final int digits = countDigits(maxValue);
+		
+		counterPrefixLength = prefix.length();
+		counterText = new char[counterPrefixLength + digits];
+		prefix.getChars(0, counterPrefixLength, counterText, 0);
+		
+		//Digits dont have the same width with every font so we keep room for the widest
+		float digitWidth = 0;
+		final char[] digit = new char[1];
+		for(char c = '0';c <= '9';c++)
+		{
+			digit[0] = c;
+			digitWidth = Math.max(digitWidth, getPaint().measureText(digit, 0, 1));
+		}
+		
+		counterTextWidth = (int) Math.ceil(getPaint().measureText(prefix) + digitWidth * digits);
+		requestLayout();
+		
+		if(overlayHost != null)
+		{
+			//We are not a child of the host, it would not hear of our new width otherwise
+			overlayHost.requestLayout();
+		}
+	}
+	
+	public void setCounter(int value)
+	{
+		final int length = counterPrefixLength + countDigits(value);
+		
+		if(counterText == null)
+		{
+			//No format given, nothing we can do without a String
+			setText(Integer.toString(value));
+			return;
+		}else if(length > counterText.length)
+		{
+			//Bigger number than expected, it wont fit in the reserved width anyway
+			setText(String.valueOf(counterText, 0, counterPrefixLength) + value);
+			return;
+		}
+		
+		//We write the digits from the end of the buffer
+		int index = length;
+		int n = value;
+		do
+		{
+			counterText[--index] = (char) ('0' + Math.abs(n % 10));
+			n /= 10;
+		} while(n != 0);
+		
+		if(value < 0)
+		{
+			counterText[--index] = '-';
+		}
+		
+		//The width is already reserved, the new text doesnt need a new layout
+		blockLayoutRequests = true;
+		setText(counterText, 0, length);
+		blockLayoutRequests = false;
+	}
+	
+	private static int countDigits(int value)
+	{
+		int digits = value < 0 ? 2 : 1;
+		while((value /= 10) != 0)
+		{
+			digits++;
+		}
+		return digits;
+	}
+	
+	boolean hasFixedWidth()
+	{
+		return counterTextWidth != -1;
+	}
+	
+	int getFixedWidth()
+	{
+		//Width of the text for the current format, -1 without format
+		return counterTextWidth;
+	}
+	
 	@Override
-	protected void onLayout(boolean changed, int left, int top, int right,
-			int bottom) {
+	public void requestLayout() {
+		if(!blockLayoutRequests)
+		{
+			super.requestLayout();
+		}
+	}
+	
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+		if(roundCounterEnabled && MeasureSpec.getMode(heightMeasureSpec) == MeasureSpec.EXACTLY)
+		{
+			//The height is known before measuring the text so is the space the counter needs
+			updateCounterSize(MeasureSpec.getSize(heightMeasureSpec));
+		}
+		
+		super.onMeasure(widthMeasureSpec, heightMeasureSpec);
 		
-		if(roundCounterEnabled && !resizedForCounter)
+		if(roundCounterEnabled && updateCounterSize(getMeasuredHeight()))
 		{
-			//If we ask to see the roundCounter and the space for him havent been calculated yet...
-			int w = right - left;
-			int h = bottom - top;
-			
-			//We calculate the size of the roundCounter. It s a portion of the height. Mrans if ratio is 1 then we take the whole height
-			//else we multiply height by the ratio for the actual size
-			//Since we want it to stay on the panel we divide that size by 2 for the rayon 
-			
-			int counterSize = (int) (h*roundCounterHeightRatio) / 2;
-			roundCounterSize = counterSize;
-			/*
-			 * We add space by increasing padding
-			 * we need to define a padding for the round counter so they dont touch
-			 * 
-			 * Next improvement : choose the position of the roundcounter
-			 */
-			
-			setPadding(getPaddingLeft() + counterSize + roundCounterPadding, getPaddingTop(), getPaddingRight(), getPaddingBottom());
-			resizedForCounter = true;			
-			
-			setMeasuredDimension(w + counterSize + roundCounterPadding, h);
+			//The height comes from the text, the counter space we used was not the right one
+			//This only happens when the height changes, not on every measure
+			super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+		}
+		
+		if(counterTextWidth != -1)
+		{
+			//Same width whatever the number we show
+			final int width = counterTextWidth + getCompoundPaddingLeft() + getCompoundPaddingRight();
+			setMeasuredDimension(resolveSize(width, widthMeasureSpec), getMeasuredHeight());
+		}
+	}
+	
+	private void updateVisibleTicks()
+	{
+		final int lines = computeVisibleTicks();
+		
+		if(lines != targetTicks)
+		{
+			//Most of the positions fall on the same line, nothing to draw again for them
+			targetTicks = lines;
 			
-			if(roundCounterBg !=null)
+			if(!frameScheduled)
 			{
-				//If an Image have been provided we use it as background
-				roundCounterBg = Bitmap.createScaledBitmap(roundCounterBg, counterSize, counterSize, true);
+				lastFrameTime = SystemClock.uptimeMillis();
+				scheduleFrame();
 			}
 		}
+	}
+	
+	private void scheduleFrame()
+	{
+		frameScheduled = true;
+		handler.postDelayed(frameRunnable, FRAME_DELAY);
+	}
+	
+	private void stepVisibleTicks()
+	{
+		//We cover a part of the way left depending on the time since the last step
+		final long now = SystemClock.uptimeMillis();
+		final float progress = Math.min(1f, (now - lastFrameTime) / SMOOTH_DURATION);
+		lastFrameTime = now;
+		
+		animatedTicks += (targetTicks - animatedTicks) * progress;
+		
+		if(Math.abs(targetTicks - animatedTicks) < 0.5f)
+		{
+			//Close enough, no need for more frames
+			animatedTicks = targetTicks;
+		}
+		
+		final int lines = Math.round(animatedTicks);
+		
+		if(lines != visibleTicks)
+		{
+			//The counter invalidates its own bounds when its level changes
+			visibleTicks = lines;
+			roundCounter.setLevel(roundCounter.getLevelForTicks(lines));
+		}
+		
+		if(animatedTicks != targetTicks)
+		{
+			scheduleFrame();
+		}
+	}
+			
+	@Override
+	public int getCompoundPaddingLeft() {
+		//The round counter takes place on the left of the text as if it was a drawable of the TextView
+		//so the text is measured and drawn after it without changing the padding
+		if(roundCounterEnabled)
+		{
+			return super.getCompoundPaddingLeft() + roundCounterSize + roundCounterPadding;
+		}
+		return super.getCompoundPaddingLeft();
+	}
+	
+	private boolean updateCounterSize(int h)
+	{
+		//We calculate the size of the roundCounter. It s a portion of the height. Mrans if ratio is 1 then we take the whole height
+		//else we multiply height by the ratio for the actual size
+		//Since we want it to stay on the panel we divide that size by 2 for the rayon 
+		final int counterSize = (int) (h*roundCounterHeightRatio) / 2;
+		
+		if(counterSize == roundCounterSize)
+		{
+			return false;
+		}
 		
-		super.onLayout(changed, left, top, right, bottom);	
+		roundCounterSize = counterSize;
+		return true;
+	}
+	
+	@Override
+	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+		super.onSizeChanged(w, h, oldw, oldh);
+		
+		if(roundCounterEnabled)
+		{
+			//The counter prepares its bitmaps and lines for its new size
+			updateRoundCounterBounds();
+		}
 	}
 	
 	@Override
 	protected void onDraw(Canvas canvas) {
-		final Paint paint = new Paint();
 		super.onDraw(canvas);
 			
 		if(!roundCounterEnabled)
@@ -155,65 +504,29 @@ public class DafruitsPanel extends TextView{
 			return;
 		}
 		
-		//We get the rayon of the round counter
-				
-		int h = getMeasuredHeight();
-		//This is a trick I used since the image dont take all the space. In truth the bg take approximatively 
-		//90% of the space then i set the line size to be slight smaller
-		int lineRatio = (int) ((double)roundCounterSize *0.1d);
-		
-		if(roundCounterBg == null)
+		roundCounter.draw(canvas);
+	}
+	
+	private int computeVisibleTicks()
+	{
+		if(total == 0)
 		{
-			//If there is a problem with the bg
-			paint.setColor(Color.GRAY);
-			canvas.drawCircle(roundCounterSize, h/2, roundCounterSize, paint);
-		}else
-		{			
-			//Else we draw the background
-			canvas.drawBitmap(roundCounterBg, roundCounterSize/2,(h - roundCounterSize)/2, paint);
+			//Nothing to show if we dont know how much elements there is
+			return 0;
 		}
 		
-		if(total != 0)
+		//We calculate the portion of lines for the elements we already passed
+		//the first line is always shown as soon as there is something to count
+		//The counter may have capped the number of lines we asked for
+		final int count = roundCounter.getTickCount();
+		final int lines = (int) Math.ceil((double)position * count / total);
+		
+		if(lines < 1)
 		{
-			//We calculate the percentage of elements we already passed
-			float percent =  (float)position / (float)total;
-			percent = percent * 100;
-			
-			//We define the center of the round counter
-			Vect center = new Vect(roundCounterSize, h/2);
-			
-			//And the initial position of the line  
-			Vect point = new Vect(roundCounterSize/2 + lineRatio, h/2);
-						
-			//the color of the bar and its alpha
-			paint.setColor(Linecolor);
-			paint.setAlpha((int) (lineAlpha * 255));
-			
-			//Now we draw the first line
-			canvas.drawLine(roundCounterSize, h/2, (float)point.x, (float)point.y, paint);
-			
-			for(int i = 0;i < percent;i++)
-			{				
-				//we will draw all the lines till we get to the desired angle
-				double angle = (float) ((i * 2 * Math.PI)/100);
-				
-				point = new Vect(roundCounterSize/2 + lineRatio, h/2);						
-				
-				point = point.rotate(center, angle);
-				
-				canvas.drawLine(roundCounterSize, h/2, (float)point.x, (float)point.y, paint);
-			}			
+			return 1;
 		}
 		
+		return lines > count ? count : lines;
 	}
 
-	
-@Override
-protected void finalize() throws Throwable {
-	//We free the image we used
-	roundCounterBg.recycle();
-	super.finalize();
-}
-	
-
 }
@@ -0,0 +1,210 @@
+package com.dafruits.android.library.widgets;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/*
+ * Holds every state of a round counter (from no line to a full dial)
+ * pre-rendered side by side in a single bitmap.
+ *
+ * Atlases are shared between panels through a LRU cache bounded in bytes.
+ * They are reference counted like the backgrounds of CounterBitmapCache:
+ * an atlas in use is never evicted and counts in the budget, so the cache
+ * never holds more than its size. A new atlas which doesn't fit next to
+ * the ones in use is not rendered at all.
+ */
+class DialAtlas {
+
+	private static final int DEFAULT_CACHE_SIZE = 4 * 1024 * 1024;
+
+	private static int sMaxBytes = DEFAULT_CACHE_SIZE;
+	private static int sBytes = 0;
+
+	// access ordered so the first entry is always the least recently used
+	private static final LinkedHashMap<Key, DialAtlas> sCache = new LinkedHashMap<Key, DialAtlas>(8, 0.75f, true);
+
+	private final Bitmap mBitmap;
+	private final int mCellSize;
+	private final int mColumns;
+	private final int mStates;
+	private final int mBytes;
+	private int mRefCount = 0;
+
+	private DialAtlas(Bitmap bitmap, int cellSize, int columns, int states, int bytes) {
+		mBitmap = bitmap;
+		mCellSize = cellSize;
+		mColumns = columns;
+		mStates = states;
+		mBytes = bytes;
+	}
+
+	public Bitmap getBitmap() {
+		return mBitmap;
+	}
+
+	/**
+	 * Fills cell with the part of the atlas showing the given number of lines.
+	 */
+	public void getCell(int lines, Rect cell) {
+		if (lines < 0) {
+			lines = 0;
+		} else if (lines >= mStates) {
+			lines = mStates - 1;
+		}
+
+		final int left = (lines % mColumns) * mCellSize;
+		final int top = (lines / mColumns) * mCellSize;
+		cell.set(left, top, left + mCellSize, top + mCellSize);
+	}
+
+	public static synchronized void setCacheSize(int maxBytes) {
+		sMaxBytes = maxBytes;
+		trimToSize(sMaxBytes);
+	}
+
+	/**
+	 * Returns the atlas matching the given dial, rendering it if needed.
+	 * Every atlas returned must be given back with {@link #release(DialAtlas)}.
+	 *
+	 * bg is drawn at (left, top) with bgPaint and ticks are expressed in the
+	 * same coordinates, the way DafruitsPanel draws them. bgTint is only part
+	 * of the key, 0 when bg is not a tinted mask. Returns null when the
+	 * atlas would not fit in the cache.
+	 */
+	public static DialAtlas acquire(int bgResId, int bgTint, int size, int lineColor, int lineAlpha,
+			int tickCount, Bitmap bg, int left, int top, float[] ticks, Paint bgPaint, Paint linePaint) {
+		final Key key = new Key(bgResId, bgTint, size, lineColor, lineAlpha, tickCount);
+
+		final int states = tickCount + 1;
+		final int columns = (int) Math.ceil(Math.sqrt(states));
+		final int rows = (states + columns - 1) / columns;
+		final int bytes = columns * size * rows * size * 4;
+
+		synchronized (DialAtlas.class) {
+			final DialAtlas atlas = sCache.get(key);
+			if (atlas != null) {
+				atlas.mRefCount++;
+				return atlas;
+			}
+
+			// room is made now so we don't render an atlas we can't keep
+			if (size <= 0 || !makeRoom(bytes)) {
+				return null;
+			}
+		}
+
+		// rendering takes a while, other atlases can be acquired and released meanwhile
+		final Bitmap bitmap = Bitmap.createBitmap(columns * size, rows * size, Bitmap.Config.ARGB_8888);
+		final Canvas canvas = new Canvas(bitmap);
+		final Rect cell = new Rect();
+
+		final DialAtlas rendered = new DialAtlas(bitmap, size, columns, states, bytes);
+
+		for (int i = 0; i < states; i++) {
+			rendered.getCell(i, cell);
+
+			canvas.save();
+			canvas.clipRect(cell);
+			canvas.translate(cell.left - left, cell.top - top);
+			canvas.drawBitmap(bg, left, top, bgPaint);
+			if (i > 0) {
+				canvas.drawLines(ticks, 0, i * 4, linePaint);
+			}
+			canvas.restore();
+		}
+
+		synchronized (DialAtlas.class) {
+			final DialAtlas atlas = sCache.get(key);
+			if (atlas != null) {
+				// someone else rendered the same one while we were drawing
+				bitmap.recycle();
+				atlas.mRefCount++;
+				return atlas;
+			}
+
+			if (!makeRoom(bytes)) {
+				bitmap.recycle();
+				return null;
+			}
+
+			rendered.mRefCount = 1;
+			sCache.put(key, rendered);
+			sBytes += bytes;
+			return rendered;
+		}
+	}
+
+	public static synchronized void release(DialAtlas atlas) {
+		if (atlas.mRefCount > 0) {
+			atlas.mRefCount--;
+			trimToSize(sMaxBytes);
+		}
+	}
+
+	private static boolean makeRoom(int bytes) {
+		if (bytes > sMaxBytes) {
+			return false;
+		}
+		trimToSize(sMaxBytes - bytes);
+		return sBytes + bytes <= sMaxBytes;
+	}
+
+	private static void trimToSize(int maxBytes) {
+		final Iterator<Map.Entry<Key, DialAtlas>> it = sCache.entrySet().iterator();
+		while (sBytes > maxBytes && it.hasNext()) {
+			final DialAtlas atlas = it.next().getValue();
+			if (atlas.mRefCount == 0) {
+				// nobody draws from it anymore
+				it.remove();
+				sBytes -= atlas.mBytes;
+				atlas.mBitmap.recycle();
+			}
+		}
+	}
+
+	private static final class Key {
+
+		private final int mBgResId;
+		private final int mBgTint;
+		private final int mSize;
+		private final int mLineColor;
+		private final int mLineAlpha;
+		private final int mTickCount;
+
+		Key(int bgResId, int bgTint, int size, int lineColor, int lineAlpha, int tickCount) {
+			mBgResId = bgResId;
+			mBgTint = bgTint;
+			mSize = size;
+			mLineColor = lineColor;
+			mLineAlpha = lineAlpha;
+			mTickCount = tickCount;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			final Key k = (Key) o;
+			return mBgResId == k.mBgResId && mBgTint == k.mBgTint && mSize == k.mSize && mLineColor == k.mLineColor
+					&& mLineAlpha == k.mLineAlpha && mTickCount == k.mTickCount;
+		}
+
+		@Override
+		public int hashCode() {
+			int h = mBgResId;
+			h = 31 * h + mBgTint;
+			h = 31 * h + mSize;
+			h = 31 * h + mLineColor;
+			h = 31 * h + mLineAlpha;
+			h = 31 * h + mTickCount;
+			return h;
+		}
+	}
+}
@@ -14,6 +14,7 @@ import android.view.animation.AnimationUtils;
 import android.widget.AbsListView;
 import android.widget.AbsListView.OnScrollListener;
 import android.widget.ListView;
+import android.widget.TextView;
 
 import com.dafruits.android.library.R;
 
@@ -29,6 +30,7 @@ public class ExtendedListView extends ListView implements OnScrollListener {
 
 	private View mScrollBarPanel = null;
 	private int mScrollBarPanelPosition = 0;
+	private final ScrollGeometry mScrollGeometry = new ScrollGeometry();
 
 	private OnPositionChangedListener mPositionChangedListener;
 	private int mLastPosition = -1;
@@ -54,6 +56,17 @@ public class ExtendedListView extends ListView implements OnScrollListener {
 	private int mWidthMeasureSpec;
 	private int mHeightMeasureSpec;
 
+	private boolean mScrollBarPanelFixedSize = false;
+
+	/*
+	 * what the panel has last been measured with, a new measure giving the
+	 * same result is skipped
+	 */
+	private boolean mScrollBarPanelMeasured = false;
+	private int mPanelWidthMeasureSpec;
+	private int mPanelHeightMeasureSpec;
+	private int mPanelContentWidth;
+
 	public ExtendedListView(Context context) {
 		this(context, null);
 	}
@@ -71,6 +84,7 @@ public class ExtendedListView extends ListView implements OnScrollListener {
 		final int scrollBarPanelLayoutId = a.getResourceId(R.styleable.ExtendedListView_scrollBarPanel, -1);
 		final int scrollBarPanelInAnimation = a.getResourceId(R.styleable.ExtendedListView_scrollBarPanelInAnimation, R.anim.in_animation);
 		final int scrollBarPanelOutAnimation = a.getResourceId(R.styleable.ExtendedListView_scrollBarPanelOutAnimation, R.anim.out_animation);
+		mScrollBarPanelFixedSize = a.getBoolean(R.styleable.ExtendedListView_scrollBarPanelFixedSize, false);
 		a.recycle();
 
 		if (scrollBarPanelLayoutId != -1) {
@@ -102,6 +116,7 @@ public class ExtendedListView extends ListView implements OnScrollListener {
 				public void onAnimationEnd(Animation animation) {
 					if (mScrollBarPanel != null) {
 						mScrollBarPanel.setVisibility(View.GONE);
+						invalidateScrollBarPanel();
 					}
 				}
 			});
@@ -124,44 +139,31 @@ public class ExtendedListView extends ListView implements OnScrollListener {
 				/*
 				 * from android source code (ScrollBarDrawable.java)
 				 */
-				final int thickness = getVerticalScrollbarWidth();
-				int height = Math.round((float) getMeasuredHeight() * computeVerticalScrollExtent() / computeVerticalScrollRange());
-				int thumbOffset = Math.round((float) (getMeasuredHeight() - height) * computeVerticalScrollOffset() / (computeVerticalScrollRange() - computeVerticalScrollExtent()));
-				final int minLength = thickness * 2;
-				if (height < minLength) {
-					height = minLength;
-				}
-				thumbOffset += height / 2;
+				mScrollGeometry.compute(computeVerticalScrollRange(), computeVerticalScrollExtent(),
+						computeVerticalScrollOffset(), getMeasuredHeight(), getVerticalScrollbarWidth());
+				final int thumbOffset = mScrollGeometry.getThumbCenter();
 				
 				/*
 				 * find out which itemviews the center of thumb is on
 				 */
-				final int count = getChildCount();
-				for (int i = 0; i < count; ++i) {
-					final View childView = getChildAt(i);
-					if (childView != null) {
-						if (thumbOffset > childView.getTop() && thumbOffset < childView.getBottom()) {
-							/* 
-							 * we have our candidate
-							 */
-							if (mLastPosition != firstVisibleItem + i) {
-								mLastPosition = firstVisibleItem + i;
-								
-								/*
-								 * inform the position of the panel has changed
-								 */
-								mPositionChangedListener.onPositionChanged(this, mLastPosition, mScrollBarPanel);
-								
-								/*
-								 * measure panel right now since it has just changed
-								 * 
-								 * INFO: quick hack to handle TextView has ScrollBarPanel (to wrap text in
-								 * case TextView's content has changed)
-								 */
-								measureChild(mScrollBarPanel, mWidthMeasureSpec, mHeightMeasureSpec);
-							}
-							break;
-						}
+				final int index = findChildUnder(thumbOffset, firstVisibleItem);
+				if (index != -1 && mLastPosition != firstVisibleItem + index) {
+					mLastPosition = firstVisibleItem + index;
+
+					/*
+					 * inform the position of the panel has changed
+					 */
+					mPositionChangedListener.onPositionChanged(this, mLastPosition, mScrollBarPanel);
+
+					/*
+					 * measure panel right now since it has just changed
+					 * 
+					 * INFO: quick hack to handle TextView has ScrollBarPanel (to wrap text in
+					 * case TextView's content has changed). A fixed size panel keeps the
+					 * same size whatever its content.
+					 */
+					if (!isScrollBarPanelFixedSize()) {
+						measureScrollBarPanel(false);
 					}
 				}
 
@@ -169,9 +171,7 @@ public class ExtendedListView extends ListView implements OnScrollListener {
 				 * update panel position
 				 */
 				mScrollBarPanelPosition = thumbOffset - mScrollBarPanel.getMeasuredHeight() / 2;
-				final int x = getMeasuredWidth() - mScrollBarPanel.getMeasuredWidth() - getVerticalScrollbarWidth();
-				mScrollBarPanel.layout(x, mScrollBarPanelPosition, x + mScrollBarPanel.getMeasuredWidth(),
-						mScrollBarPanelPosition + mScrollBarPanel.getMeasuredHeight());
+				positionScrollBarPanel();
 			}
 		}
 
@@ -180,6 +180,49 @@ public class ExtendedListView extends ListView implements OnScrollListener {
 		}
 	}
 
+	/*
+	 * index of the child having y strictly between its top and bottom, -1 if
+	 * y is on none of them
+	 */
+	private int findChildUnder(int y, int firstVisibleItem) {
+		final int count = getChildCount();
+
+		/*
+		 * most scroll events leave the thumb on the same row, the child of
+		 * the last position is checked before searching
+		 */
+		final int lastIndex = mLastPosition - firstVisibleItem;
+		if (lastIndex >= 0 && lastIndex < count) {
+			final View lastChild = getChildAt(lastIndex);
+			if (lastChild != null && y > lastChild.getTop() && y < lastChild.getBottom()) {
+				return lastIndex;
+			}
+		}
+
+		/*
+		 * children are laid out from top to bottom, look for the last one
+		 * starting above y
+		 */
+		int low = 0;
+		int high = count - 1;
+		int candidate = -1;
+		while (low <= high) {
+			final int middle = (low + high) >>> 1;
+			final View child = getChildAt(middle);
+			if (child != null && child.getTop() < y) {
+				candidate = middle;
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+
+		if (candidate != -1 && y < getChildAt(candidate).getBottom()) {
+			return candidate;
+		}
+		return -1;
+	}
+
 	public void setOnPositionChangedListener(OnPositionChangedListener onPositionChangedListener) {
 		mPositionChangedListener = onPositionChangedListener;
 	}
@@ -190,8 +233,28 @@ public class ExtendedListView extends ListView implements OnScrollListener {
 	}
 
 	public void setScrollBarPanel(View scrollBarPanel) {
+		if (mScrollBarPanel instanceof DafruitsPanel) {
+			((DafruitsPanel) mScrollBarPanel).detachRoundCounter();
+			((DafruitsPanel) mScrollBarPanel).setOverlayHost(null);
+		}
+		invalidateScrollBarPanel();
+
 		mScrollBarPanel = scrollBarPanel;
 		mScrollBarPanel.setVisibility(View.GONE);
+		mScrollBarPanelMeasured = false;
+
+		/*
+		 * the panel is drawn over our children, not as one of them: changes
+		 * of its content only redraw the area it covers
+		 */
+		if (mScrollBarPanel instanceof DafruitsPanel) {
+			((DafruitsPanel) mScrollBarPanel).setOverlayHost(this);
+
+			if (getWindowToken() != null) {
+				// we are already attached, onAttachedToWindow won't do it for this panel
+				((DafruitsPanel) mScrollBarPanel).attachRoundCounter();
+			}
+		}
 		requestLayout();
 	}
 
@@ -202,6 +265,28 @@ public class ExtendedListView extends ListView implements OnScrollListener {
 	public View getScrollBarPanel() {
 		return mScrollBarPanel;
 	}
+
+	/**
+	 * A fixed size panel is only measured when the list is, never while
+	 * scrolling, whatever its content becomes.
+	 */
+	public void setScrollBarPanelFixedSize(boolean fixedSize) {
+		if (mScrollBarPanelFixedSize != fixedSize) {
+			mScrollBarPanelFixedSize = fixedSize;
+			mScrollBarPanelMeasured = false;
+			requestLayout();
+		}
+	}
+
+	/**
+	 * True when the panel has been set as fixed size or is a DafruitsPanel
+	 * with a counter format, whose width doesn't depend on its value. Such a
+	 * panel is measured again when the list is and its format changed.
+	 */
+	public boolean isScrollBarPanelFixedSize() {
+		return mScrollBarPanelFixedSize
+				|| (mScrollBarPanel instanceof DafruitsPanel && ((DafruitsPanel) mScrollBarPanel).hasFixedWidth());
+	}
 	
 	@Override
 	protected boolean awakenScrollBars(int startDelay, boolean invalidate) {
@@ -229,18 +314,105 @@ public class ExtendedListView extends ListView implements OnScrollListener {
 		if (mScrollBarPanel != null && getAdapter() != null) {
 			mWidthMeasureSpec = widthMeasureSpec;
 			mHeightMeasureSpec = heightMeasureSpec;
-			measureChild(mScrollBarPanel, widthMeasureSpec, heightMeasureSpec);
+			/*
+			 * a fixed size panel asking for a layout (a setText on a
+			 * wrap_content TextView does) still has the same size, unless its
+			 * counter format changed, which changes its content width below
+			 */
+			measureScrollBarPanel(!isScrollBarPanelFixedSize() && mScrollBarPanel.isLayoutRequested());
 		}
 	}
 
+	/*
+	 * measures the panel with the last specs we got, unless it has already
+	 * been measured with them and its content still has the same width
+	 */
+	private void measureScrollBarPanel(boolean force) {
+		final int contentWidth = mScrollBarPanelFixedSize ? 0 : getContentWidth(mScrollBarPanel);
+
+		if (!force && mScrollBarPanelMeasured && contentWidth != -1 && contentWidth == mPanelContentWidth
+				&& mWidthMeasureSpec == mPanelWidthMeasureSpec && mHeightMeasureSpec == mPanelHeightMeasureSpec) {
+			return;
+		}
+
+		measureChild(mScrollBarPanel, mWidthMeasureSpec, mHeightMeasureSpec);
+
+		mScrollBarPanelMeasured = true;
+		mPanelWidthMeasureSpec = mWidthMeasureSpec;
+		mPanelHeightMeasureSpec = mHeightMeasureSpec;
+		mPanelContentWidth = contentWidth;
+	}
+
+	/*
+	 * width the text of a TextView panel needs, much cheaper than measuring
+	 * the view, -1 when we can't tell for this kind of panel. A DafruitsPanel
+	 * with a counter format needs the width of its format whatever it shows.
+	 */
+	private static int getContentWidth(View panel) {
+		if (panel instanceof DafruitsPanel && ((DafruitsPanel) panel).hasFixedWidth()) {
+			return ((DafruitsPanel) panel).getFixedWidth();
+		}
+
+		if (!(panel instanceof TextView)) {
+			return -1;
+		}
+
+		final TextView textView = (TextView) panel;
+		final CharSequence text = textView.getText();
+		return (int) Math.ceil(textView.getPaint().measureText(text, 0, text.length()));
+	}
+
 	@Override
 	protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
 		super.onLayout(changed, left, top, right, bottom);
 
 		if (mScrollBarPanel != null) {
-			final int x = getMeasuredWidth() - mScrollBarPanel.getMeasuredWidth() - getVerticalScrollbarWidth();
-			mScrollBarPanel.layout(x, mScrollBarPanelPosition, x + mScrollBarPanel.getMeasuredWidth(),
-					mScrollBarPanelPosition + mScrollBarPanel.getMeasuredHeight());
+			positionScrollBarPanel();
+		}
+	}
+
+	/*
+	 * moves the panel to mScrollBarPanelPosition, it is only laid out again
+	 * when its size, its side or its content changed
+	 */
+	private void positionScrollBarPanel() {
+		final int oldLeft = mScrollBarPanel.getLeft();
+		final int oldTop = mScrollBarPanel.getTop();
+		final int oldRight = mScrollBarPanel.getRight();
+		final int oldBottom = mScrollBarPanel.getBottom();
+
+		final int width = mScrollBarPanel.getMeasuredWidth();
+		final int height = mScrollBarPanel.getMeasuredHeight();
+		final int x = getMeasuredWidth() - width - getVerticalScrollbarWidth();
+
+		if (!mScrollBarPanel.isLayoutRequested() && mScrollBarPanel.getLeft() == x
+				&& mScrollBarPanel.getWidth() == width && mScrollBarPanel.getHeight() == height) {
+			/*
+			 * same size at the same place, only its top changes: no layout
+			 * pass, and no new display list when hardware accelerated
+			 */
+			final int offset = mScrollBarPanelPosition - mScrollBarPanel.getTop();
+			if (offset != 0) {
+				mScrollBarPanel.offsetTopAndBottom(offset);
+			}
+		} else {
+			mScrollBarPanel.layout(x, mScrollBarPanelPosition, x + width, mScrollBarPanelPosition + height);
+		}
+
+		/*
+		 * the panel has no parent to do it, we redraw where it was and where
+		 * it is now, nothing else
+		 */
+		if (mScrollBarPanel.getVisibility() == View.VISIBLE) {
+			invalidate(Math.min(oldLeft, mScrollBarPanel.getLeft()), Math.min(oldTop, mScrollBarPanel.getTop()),
+					Math.max(oldRight, mScrollBarPanel.getRight()), Math.max(oldBottom, mScrollBarPanel.getBottom()));
+		}
+	}
+
+	private void invalidateScrollBarPanel() {
+		if (mScrollBarPanel != null) {
+			invalidate(mScrollBarPanel.getLeft(), mScrollBarPanel.getTop(), mScrollBarPanel.getRight(),
+					mScrollBarPanel.getBottom());
 		}
 	}
 
@@ -253,10 +425,26 @@ public class ExtendedListView extends ListView implements OnScrollListener {
 		}
 	}
 
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+
+		/*
+		 * the panel is not a real child, it doesn't get attached with us
+		 */
+		if (mScrollBarPanel instanceof DafruitsPanel) {
+			((DafruitsPanel) mScrollBarPanel).attachRoundCounter();
+		}
+	}
+
 	@Override
 	public void onDetachedFromWindow() {
 		super.onDetachedFromWindow();
 
 		mHandler.removeCallbacks(mScrollBarPanelFadeRunnable);
+
+		if (mScrollBarPanel instanceof DafruitsPanel) {
+			((DafruitsPanel) mScrollBarPanel).detachRoundCounter();
+		}
 	}
 }
@@ -25,6 +25,8 @@ public class Main extends Activity implements OnPositionChangedListener {
 		mListView.setAdapter(new DummyAdapter());
 		mListView.setCacheColorHint(Color.TRANSPARENT);
 		mListView.setOnPositionChangedListener(this);
+		
+		((DafruitsPanel) mListView.getScrollBarPanel()).setCounterFormat("Position ", mListView.getCount());
     }
     
     private class DummyAdapter extends BaseAdapter {
@@ -59,7 +61,7 @@ public class Main extends Activity implements OnPositionChangedListener {
 	public void onPositionChanged(ExtendedListView listView, int firstVisiblePosition, View scrollBarPanel) {
 		
 		DafruitsPanel panel = ((DafruitsPanel) scrollBarPanel);
-		panel.setText("Position " + firstVisiblePosition);
+		panel.setCounter(firstVisiblePosition);
 		
 		panel.setPosition(firstVisiblePosition);
 		panel.setTotal(listView.getCount());
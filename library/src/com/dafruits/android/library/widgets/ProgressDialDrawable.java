@@ -0,0 +1,410 @@
+package com.dafruits.android.library.widgets;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.util.SparseArray;
+
+/**
+ * Round progress dial: a background with lines drawn from its center, more
+ * of them as the level of the drawable grows (from 0 to 10000).
+ *
+ * Dials of the same resource, tint, lines and atlas mode share one
+ * {@link ConstantState} and its line tables, and backgrounds and atlases are
+ * shared through process wide caches, so another dial of the same kind
+ * costs no bitmap memory and no table.
+ *
+ * Bitmaps are only held while the drawable is visible, call
+ * {@link #setVisible(boolean, boolean)} when the view showing it is detached.
+ */
+public class ProgressDialDrawable extends Drawable {
+
+	public static final int DEFAULT_TICK_COUNT = 100;
+
+	private static final int MAX_LEVEL = 10000;
+
+	private final DialState mState;
+	private final Resources mResources;
+
+	private final Paint mBgPaint = new Paint();
+	private final Paint mFallbackPaint = new Paint();
+	private final Paint mLinePaint = new Paint();
+	private final Paint mAtlasPaint = new Paint();
+	private final Rect mAtlasSrc = new Rect();
+
+	private Bitmap mBitmap = null;
+	// size mBitmap has been prepared for, -1 while we hold no bitmap
+	private int mBitmapSize = -1;
+	private float[] mTicks = null;
+	private DialAtlas mAtlas = null;
+	private int mVisibleTicks = 0;
+	private int mAlpha = 255;
+
+	private final CounterBitmapCache.OnBitmapLoadedListener mBitmapLoadedListener = new CounterBitmapCache.OnBitmapLoadedListener() {
+
+		@Override
+		public void onBitmapLoaded(Bitmap bitmap) {
+			mBitmap = bitmap;
+			updateAtlas();
+			invalidateSelf();
+		}
+	};
+
+	/**
+	 * Dial using a resource as background. When bgTint is not 0 the resource
+	 * is only kept as an alpha mask drawn with that color.
+	 */
+	public ProgressDialDrawable(Resources res, int bgResId, int bgTint, int lineColor, int lineAlpha, int tickCount,
+			boolean atlasEnabled) {
+		this(res, DialState.obtain(res, bgResId, bgTint, lineColor, lineAlpha, tickCount, atlasEnabled));
+	}
+
+	/**
+	 * Dial using a bitmap as background. The bitmap stays the caller's one,
+	 * the dial draws a scaled copy of it.
+	 */
+	public ProgressDialDrawable(Resources res, Bitmap bg, int lineColor, int lineAlpha, int tickCount) {
+		this(res, new DialState(res, -1, bg, 0, lineColor, lineAlpha, tickCount, false));
+	}
+
+	private ProgressDialDrawable(Resources res, DialState state) {
+		mState = state;
+		mResources = res;
+
+		mFallbackPaint.setColor(Color.GRAY);
+		mBgPaint.set(state.mBgPaint);
+		mLinePaint.set(state.mLinePaint);
+	}
+
+	public int getTickCount() {
+		return mState.mTickCount;
+	}
+
+	/**
+	 * Level showing the given number of lines.
+	 */
+	public int getLevelForTicks(int ticks) {
+		return ticks * MAX_LEVEL / mState.mTickCount;
+	}
+
+	@Override
+	protected boolean onLevelChange(int level) {
+		// setLevel takes any int, the lines we draw stay within [0, mTickCount]
+		final int capped = Math.max(0, Math.min(MAX_LEVEL, level));
+
+		// same rounding as the panel always had: a line as soon as we passed a part of it
+		final int ticks = (capped * mState.mTickCount + MAX_LEVEL - 1) / MAX_LEVEL;
+		if (ticks == mVisibleTicks) {
+			return false;
+		}
+
+		mVisibleTicks = ticks;
+		invalidateSelf();
+		return true;
+	}
+
+	@Override
+	protected void onBoundsChange(Rect bounds) {
+		if (isVisible()) {
+			prepare();
+		}
+	}
+
+	@Override
+	public boolean setVisible(boolean visible, boolean restart) {
+		final boolean changed = super.setVisible(visible, restart);
+
+		if (visible) {
+			prepare();
+		} else {
+			// the bitmaps go back to the cache and the pool right now instead of waiting for the GC
+			release();
+		}
+
+		return changed;
+	}
+
+	private void prepare() {
+		final Rect bounds = getBounds();
+		final int size = Math.min(bounds.width(), bounds.height());
+		if (size <= 0) {
+			return;
+		}
+
+		if (mBitmapSize != size) {
+			release();
+			mBitmapSize = size;
+
+			if (mState.mBgResId != -1) {
+				// decoded and scaled once for all the dials using it at this size, the listener tells when it's ready
+				mBitmap = CounterBitmapCache.acquire(mResources, mState.mBgResId, size, mState.mBgTint != 0,
+						mBitmapLoadedListener);
+			} else if (mState.mBgSource != null) {
+				mBitmap = BitmapPool.scale(mState.mBgSource, size, size, Bitmap.Config.ARGB_8888);
+			}
+		}
+
+		mTicks = mState.getTicks(size);
+		updateAtlas();
+	}
+
+	private void release() {
+		if (mAtlas != null) {
+			// rendered for the size we release, it must not be stretched to the next one
+			DialAtlas.release(mAtlas);
+			mAtlas = null;
+		}
+
+		if (mBitmapSize == -1) {
+			return;
+		}
+
+		if (mState.mBgResId != -1) {
+			CounterBitmapCache.release(mResources, mState.mBgResId, mBitmapSize, mState.mBgTint != 0,
+					mBitmapLoadedListener);
+		} else {
+			// our scaled copy can be reused by the next dial needing this size
+			BitmapPool.release(mBitmap);
+		}
+
+		mBitmap = null;
+		mBitmapSize = -1;
+	}
+
+	private void updateAtlas() {
+		// an atlas is held for our size until release()
+		if (mState.mAtlasEnabled && mAtlas == null && mBitmap != null && mTicks != null) {
+			/*
+			 * the atlas is rendered with the paints of the state so that it
+			 * only depends on its key, alpha and color filter of this
+			 * drawable are applied when it is drawn
+			 */
+			mAtlas = DialAtlas.acquire(mState.mBgResId, mState.mBgTint, mBitmapSize, mState.mLineColor,
+					mState.mLineAlpha, mState.mTickCount, mBitmap, 0, 0, mTicks, mState.mBgPaint, mState.mLinePaint);
+		}
+	}
+
+	@Override
+	public void draw(Canvas canvas) {
+		final Rect bounds = getBounds();
+		final int size = mBitmapSize;
+
+		if (size <= 0) {
+			return;
+		}
+
+		if (mAtlas != null) {
+			// the whole dial is already rendered, we only pick the right state
+			mAtlas.getCell(mVisibleTicks, mAtlasSrc);
+			canvas.drawBitmap(mAtlas.getBitmap(), mAtlasSrc, bounds, mAtlasPaint);
+			return;
+		}
+
+		canvas.save();
+		canvas.translate(bounds.left, bounds.top);
+
+		if (mBitmap == null) {
+			// still loading or no background at all
+			canvas.drawCircle(size / 2f, size / 2f, size / 2f, mFallbackPaint);
+		} else {
+			canvas.drawBitmap(mBitmap, 0, 0, mBgPaint);
+		}
+
+		if (mVisibleTicks > 0 && mTicks != null) {
+			// all the lines till the current level go in one batch
+			canvas.drawLines(mTicks, 0, mVisibleTicks * 4, mLinePaint);
+		}
+
+		canvas.restore();
+	}
+
+	@Override
+	public void setAlpha(int alpha) {
+		mAlpha = alpha;
+		mBgPaint.setAlpha(Color.alpha(mState.mBgPaint.getColor()) * alpha / 255);
+		mLinePaint.setAlpha(mState.mLineAlpha * alpha / 255);
+		mFallbackPaint.setAlpha(alpha);
+		mAtlasPaint.setAlpha(alpha);
+		invalidateSelf();
+	}
+
+	@Override
+	public void setColorFilter(ColorFilter cf) {
+		mBgPaint.setColorFilter(cf);
+		mLinePaint.setColorFilter(cf);
+		mFallbackPaint.setColorFilter(cf);
+		mAtlasPaint.setColorFilter(cf);
+		invalidateSelf();
+	}
+
+	@Override
+	public int getOpacity() {
+		return mAlpha == 0 ? PixelFormat.TRANSPARENT : PixelFormat.TRANSLUCENT;
+	}
+
+	@Override
+	public ConstantState getConstantState() {
+		return mState;
+	}
+
+	static final class DialState extends ConstantState {
+
+		// states of the resource dials in use, they go away with their last drawable
+		private static final HashMap<StateKey, WeakReference<DialState>> sStates = new HashMap<StateKey, WeakReference<DialState>>();
+
+		private final Resources mResources;
+		private final int mBgResId;
+		private final Bitmap mBgSource;
+		private final int mBgTint;
+		private final int mLineColor;
+		private final int mLineAlpha;
+		private final int mTickCount;
+		private final boolean mAtlasEnabled;
+
+		// never changed once built, drawables copy them
+		private final Paint mBgPaint = new Paint();
+		private final Paint mLinePaint = new Paint();
+
+		// line tables by size, shared by every drawable of this state
+		private final SparseArray<float[]> mTicks = new SparseArray<float[]>(1);
+
+		DialState(Resources res, int bgResId, Bitmap bgSource, int bgTint, int lineColor, int lineAlpha,
+				int tickCount, boolean atlasEnabled) {
+			mResources = res;
+			mBgResId = bgResId;
+			mBgSource = bgSource;
+			mBgTint = bgTint;
+			mLineColor = lineColor;
+			mLineAlpha = Math.max(0, Math.min(255, lineAlpha));
+			mTickCount = Math.max(1, Math.min(MAX_LEVEL, tickCount));
+			// a bitmap we don't know the origin of can't be shared through the atlas
+			mAtlasEnabled = atlasEnabled && bgResId != -1;
+
+			if (bgTint != 0) {
+				// an alpha mask is drawn with the color of the paint
+				mBgPaint.setColor(bgTint);
+			}
+			mLinePaint.setColor(lineColor);
+			mLinePaint.setAlpha(mLineAlpha);
+		}
+
+		static synchronized DialState obtain(Resources res, int bgResId, int bgTint, int lineColor, int lineAlpha,
+				int tickCount, boolean atlasEnabled) {
+			final StateKey key = new StateKey(bgResId, bgTint, lineColor, lineAlpha, tickCount, atlasEnabled);
+			final WeakReference<DialState> ref = sStates.get(key);
+			DialState state = ref != null ? ref.get() : null;
+
+			if (state == null) {
+				// forget the states nobody uses anymore before adding one
+				final Iterator<WeakReference<DialState>> it = sStates.values().iterator();
+				while (it.hasNext()) {
+					if (it.next().get() == null) {
+						it.remove();
+					}
+				}
+
+				state = new DialState(res, bgResId, null, bgTint, lineColor, lineAlpha, tickCount, atlasEnabled);
+				sStates.put(key, new WeakReference<DialState>(state));
+			}
+			return state;
+		}
+
+		float[] getTicks(int size) {
+			float[] ticks = mTicks.get(size);
+			if (ticks == null) {
+				ticks = computeTicks(size);
+				mTicks.put(size, ticks);
+			}
+			return ticks;
+		}
+
+		private float[] computeTicks(int size) {
+			/*
+			 * the background doesn't take all the space, about 90% of it, so
+			 * the lines are slightly shorter than the radius
+			 */
+			final int lineRatio = (int) (size * 0.1d);
+			final float center = size / 2f;
+			final float radius = center - lineRatio;
+
+			final float[] ticks = new float[mTickCount * 4];
+
+			for (int i = 0; i < mTickCount; i++) {
+				// every line starts on the left of the center and turns till its own angle
+				final double angle = (i * 2 * Math.PI) / mTickCount;
+
+				ticks[i * 4] = center;
+				ticks[i * 4 + 1] = center;
+				ticks[i * 4 + 2] = (float) (center - radius * Math.cos(angle));
+				ticks[i * 4 + 3] = (float) (center - radius * Math.sin(angle));
+			}
+
+			return ticks;
+		}
+
+		@Override
+		public Drawable newDrawable() {
+			return new ProgressDialDrawable(mResources, this);
+		}
+
+		@Override
+		public Drawable newDrawable(Resources res) {
+			return new ProgressDialDrawable(res, this);
+		}
+
+		@Override
+		public int getChangingConfigurations() {
+			return 0;
+		}
+	}
+
+	private static final class StateKey {
+
+		private final int mBgResId;
+		private final int mBgTint;
+		private final int mLineColor;
+		private final int mLineAlpha;
+		private final int mTickCount;
+		private final boolean mAtlasEnabled;
+
+		StateKey(int bgResId, int bgTint, int lineColor, int lineAlpha, int tickCount, boolean atlasEnabled) {
+			mBgResId = bgResId;
+			mBgTint = bgTint;
+			mLineColor = lineColor;
+			mLineAlpha = lineAlpha;
+			mTickCount = tickCount;
+			mAtlasEnabled = atlasEnabled;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof StateKey)) {
+				return false;
+			}
+			final StateKey k = (StateKey) o;
+			return mBgResId == k.mBgResId && mBgTint == k.mBgTint && mLineColor == k.mLineColor
+					&& mLineAlpha == k.mLineAlpha && mTickCount == k.mTickCount && mAtlasEnabled == k.mAtlasEnabled;
+		}
+
+		@Override
+		public int hashCode() {
+			int h = mBgResId;
+			h = 31 * h + mBgTint;
+			h = 31 * h + mLineColor;
+			h = 31 * h + mLineAlpha;
+			h = 31 * h + mTickCount;
+			h = 31 * h + (mAtlasEnabled ? 1 : 0);
+			return h;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.dafruits.android.library.widgets;
+
+/*
+ * Position of the scroll bar thumb, the same math as android's
+ * ScrollBarDrawable, kept apart from any View so it can run anywhere.
+ *
+ * compute() only updates fields, one instance can be reused for every
+ * scroll event without allocating.
+ */
+final class ScrollGeometry {
+
+	private int mThumbLength = 0;
+	private int mThumbOffset = 0;
+
+	/**
+	 * Computes the thumb for a scroll bar of the given length (height of the
+	 * view) and thickness, range, extent and offset being the values of
+	 * computeVerticalScrollRange(), Extent() and Offset().
+	 */
+	public void compute(int range, int extent, int offset, int length, int thickness) {
+		if (range <= 0) {
+			mThumbLength = 0;
+			mThumbOffset = 0;
+			return;
+		}
+
+		int thumbLength = Math.round((float) length * extent / range);
+
+		// nothing to scroll, the thumb stays at the top
+		mThumbOffset = range > extent ? Math.round((float) (length - thumbLength) * offset / (range - extent)) : 0;
+
+		// the offset above uses the real length, only the drawn thumb gets a minimum
+		final int minLength = thickness * 2;
+		if (thumbLength < minLength) {
+			thumbLength = minLength;
+		}
+		mThumbLength = thumbLength;
+	}
+
+	public int getThumbLength() {
+		return mThumbLength;
+	}
+
+	public int getThumbOffset() {
+		return mThumbOffset;
+	}
+
+	/**
+	 * Center of the thumb, where the panel is aligned.
+	 */
+	public int getThumbCenter() {
+		return mThumbOffset + mThumbLength / 2;
+	}
+}
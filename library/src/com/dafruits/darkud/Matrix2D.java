@@ -0,0 +1,196 @@
+package com.dafruits.darkud;
+
+//Class			: 	Matrix2D
+//Description 	:	Affine transform, a chain of translations, rotations, scales and
+//					shears composed in a single 2x3 matrix then applied to vectors
+//					or point arrays in one pass
+//
+//	| a  c  tx |		x' = a * x + c * y + tx
+//	| b  d  ty |		y' = b * x + d * y + ty
+//
+//Operations are applied in the order they are called, m.rotate(p,angle).scale(q,ratio)
+//transforms a point the same way as v.rotate(p,angle).scale(q,ratio)
+
+public class Matrix2D {
+
+	public double a = 1;
+	public double b = 0;
+	public double c = 0;
+	public double d = 1;
+	public double tx = 0;
+	public double ty = 0;
+
+	//receives cos and sin of rotations
+	private final Vect sinCos = new Vect();
+
+	//constructors
+	public Matrix2D()
+	{
+		//Identity
+	}
+
+	public Matrix2D(Matrix2D m)
+	{
+		set(m);
+	}
+
+	public Matrix2D reset()
+	{
+		//back to identity
+		a = 1;
+		b = 0;
+		c = 0;
+		d = 1;
+		tx = 0;
+		ty = 0;
+		return this;
+	}
+
+	public Matrix2D set(Matrix2D m)
+	{
+		a = m.a;
+		b = m.b;
+		c = m.c;
+		d = m.d;
+		tx = m.tx;
+		ty = m.ty;
+		return this;
+	}
+
+	//Composition
+	public Matrix2D translate(Vect v)
+	{
+		//same as Vect.translate
+		tx += v.x;
+		ty += v.y;
+		return this;
+	}
+
+	public Matrix2D rotate(Vect pivot,double angle)
+	{
+		//same as Vect.rotate(pivot,angle)
+		Vect.getTrig().sinCos(angle,sinCos);
+		return then(sinCos.x,sinCos.y,-sinCos.y,sinCos.x,pivot.x,pivot.y);
+	}
+
+	public Matrix2D rotate(double angle)
+	{
+		//same as Vect.rotate(angle), around the origin
+		Vect.getTrig().sinCos(angle,sinCos);
+		return then(sinCos.x,sinCos.y,-sinCos.y,sinCos.x,0,0);
+	}
+
+	public Matrix2D scale(Vect pivot,double ratio)
+	{
+		//same as Vect.scale
+		return then(ratio,0,0,ratio,pivot.x,pivot.y);
+	}
+
+	public Matrix2D shear(Vect pivot,double xRatio,double yRatio)
+	{
+		//same as Vect.shear
+		return then(xRatio,0,0,yRatio,pivot.x,pivot.y);
+	}
+
+	public Matrix2D concat(Matrix2D m)
+	{
+		//apply m after the operations already in this matrix
+		final double na = m.a * a + m.c * b;
+		final double nb = m.b * a + m.d * b;
+		final double nc = m.a * c + m.c * d;
+		final double nd = m.b * c + m.d * d;
+		final double ntx = m.a * tx + m.c * ty + m.tx;
+		final double nty = m.b * tx + m.d * ty + m.ty;
+
+		a = na;
+		b = nb;
+		c = nc;
+		d = nd;
+		tx = ntx;
+		ty = nty;
+		return this;
+	}
+
+	private Matrix2D then(double la,double lb,double lc,double ld,double px,double py)
+	{
+		//apply the linear part l around the pivot p after this matrix
+		//p + l * (v - p) is l * v plus a translation of p - l * p
+		final double na = la * a + lc * b;
+		final double nb = lb * a + ld * b;
+		final double nc = la * c + lc * d;
+		final double nd = lb * c + ld * d;
+		final double ntx = la * tx + lc * ty + px - (la * px + lc * py);
+		final double nty = lb * tx + ld * ty + py - (lb * px + ld * py);
+
+		a = na;
+		b = nb;
+		c = nc;
+		d = nd;
+		tx = ntx;
+		ty = nty;
+		return this;
+	}
+
+	//Application
+	public Vect apply(Vect v)
+	{
+		//return the transformed vector
+		return applyInto(v,new Vect());
+	}
+
+	public Vect applyInto(Vect v,Vect out)
+	{
+		//same as apply but the result goes in out, which can be v
+		final double x = v.x;
+		final double y = v.y;
+		return out.set(a * x + c * y + tx,b * x + d * y + ty);
+	}
+
+	public VectF applyInto(VectF v,VectF out)
+	{
+		//same for float vectors, computed in double and rounded once
+		final double x = v.x;
+		final double y = v.y;
+		return out.set((float) (a * x + c * y + tx),(float) (b * x + d * y + ty));
+	}
+
+	public void apply(Vect[] points)
+	{
+		//transform every point of the array in place
+		for(int i = 0;i < points.length;i++)
+		{
+			applyInto(points[i],points[i]);
+		}
+	}
+
+	public void apply(double[] src,int srcOffset,double[] dst,int dstOffset,int count)
+	{
+		//transform count points stored as x0,y0,x1,y1... src and dst can be the same array
+		for(int i = 0;i < count;i++)
+		{
+			final double x = src[srcOffset++];
+			final double y = src[srcOffset++];
+			dst[dstOffset++] = a * x + c * y + tx;
+			dst[dstOffset++] = b * x + d * y + ty;
+		}
+	}
+
+	public void apply(float[] src,int srcOffset,float[] dst,int dstOffset,int count)
+	{
+		//same as above for the arrays Canvas.drawLines and drawPoints take
+		for(int i = 0;i < count;i++)
+		{
+			final double x = src[srcOffset++];
+			final double y = src[srcOffset++];
+			dst[dstOffset++] = (float) (a * x + c * y + tx);
+			dst[dstOffset++] = (float) (b * x + d * y + ty);
+		}
+	}
+
+	@Override
+	public String toString() {
+
+		return "[" + (float)a + "," + (float)c + "," + (float)tx + "][" + (float)b + "," + (float)d + "," + (float)ty + "]";
+	}
+
+}
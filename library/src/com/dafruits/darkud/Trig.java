@@ -0,0 +1,244 @@
+package com.dafruits.darkud;
+
+//Class			: 	Trig
+//Description 	:	Trigonometry used by Vect, exact or approximated to trade
+//					precision for speed (see Vect.setTrig)
+//
+//Maximum absolute errors:
+//	EXACT		sin, cos, atan2 from java.lang.Math
+//	TABLE		sin, cos < 3e-7 (4096 entries, linear interpolation)
+//				atan2 < 1.2e-5 (same polynomial as POLYNOMIAL)
+//	POLYNOMIAL	sin, cos < 1e-7 (degree 11 odd polynomial on [-pi/2,pi/2])
+//				atan2 < 1.2e-5 (Abramowitz & Stegun 4.4.49 polynomial)
+
+public enum Trig {
+
+	EXACT
+	{
+		@Override
+		public double sin(double angle)
+		{
+			return Math.sin(angle);
+		}
+
+		@Override
+		public double cos(double angle)
+		{
+			return Math.cos(angle);
+		}
+
+		@Override
+		public Vect sinCos(double angle,Vect out)
+		{
+			return out.set(Math.cos(angle),Math.sin(angle));
+		}
+
+		@Override
+		public double[] sinCos(double angle,double[] out)
+		{
+			out[0] = Math.cos(angle);
+			out[1] = Math.sin(angle);
+			return out;
+		}
+
+		@Override
+		public double atan2(double y,double x)
+		{
+			return Math.atan2(y,x);
+		}
+	},
+
+	TABLE
+	{
+		@Override
+		public double sin(double angle)
+		{
+			return Table.sin(angle);
+		}
+
+		@Override
+		public double cos(double angle)
+		{
+			return Table.sin(angle + HALF_PI);
+		}
+
+		@Override
+		public Vect sinCos(double angle,Vect out)
+		{
+			//both values come from the same position in the table, a quarter of turn away
+			final double position = reduce(angle) * Table.SCALE;
+			final int index = (int) position;
+			final double t = position - index;
+
+			return out.set(Table.interpolate(index + Table.QUARTER,t),Table.interpolate(index,t));
+		}
+
+		@Override
+		public double[] sinCos(double angle,double[] out)
+		{
+			final double position = reduce(angle) * Table.SCALE;
+			final int index = (int) position;
+			final double t = position - index;
+
+			out[0] = Table.interpolate(index + Table.QUARTER,t);
+			out[1] = Table.interpolate(index,t);
+			return out;
+		}
+
+		@Override
+		public double atan2(double y,double x)
+		{
+			return approxAtan2(y,x);
+		}
+	},
+
+	POLYNOMIAL
+	{
+		@Override
+		public double sin(double angle)
+		{
+			return polySin(reduce(angle));
+		}
+
+		@Override
+		public double cos(double angle)
+		{
+			return polySin(reduce(angle + HALF_PI));
+		}
+
+		@Override
+		public Vect sinCos(double angle,Vect out)
+		{
+			//a single range reduction for both
+			final double a = reduce(angle);
+			final double c = a + HALF_PI;
+
+			return out.set(polySin(c >= TWO_PI ? c - TWO_PI : c),polySin(a));
+		}
+
+		@Override
+		public double[] sinCos(double angle,double[] out)
+		{
+			final double a = reduce(angle);
+			final double c = a + HALF_PI;
+
+			out[0] = polySin(c >= TWO_PI ? c - TWO_PI : c);
+			out[1] = polySin(a);
+			return out;
+		}
+
+		@Override
+		public double atan2(double y,double x)
+		{
+			return approxAtan2(y,x);
+		}
+	};
+
+	private static final double TWO_PI = 2 * Math.PI;
+	private static final double HALF_PI = Math.PI / 2;
+
+	public abstract double sin(double angle);
+
+	public abstract double cos(double angle);
+
+	//return (cos,sin) of the angle in out, computed together when the method allows it
+	public abstract Vect sinCos(double angle,Vect out);
+
+	//same in an array, out[0] is cos and out[1] is sin, for callers having no Vect at hand
+	public abstract double[] sinCos(double angle,double[] out);
+
+	public abstract double atan2(double y,double x);
+
+	private static double reduce(double angle)
+	{
+		//same angle in [0,2pi)
+		double a = angle % TWO_PI;
+		if(a < 0)
+		{
+			a += TWO_PI;
+		}
+		return a >= TWO_PI ? 0 : a;
+	}
+
+	private static double polySin(double a)
+	{
+		//a is in [0,2pi), we bring it back to [-pi/2,pi/2] where sin is odd
+		if(a > Math.PI)
+		{
+			a -= TWO_PI;
+		}
+		if(a > HALF_PI)
+		{
+			a = Math.PI - a;
+		}else if(a < -HALF_PI)
+		{
+			a = -Math.PI - a;
+		}
+
+		//Taylor series till x^11, Horner form
+		final double a2 = a * a;
+		return a * (1 + a2 * (-1.0 / 6 + a2 * (1.0 / 120 + a2 * (-1.0 / 5040
+				+ a2 * (1.0 / 362880 + a2 * (-1.0 / 39916800))))));
+	}
+
+	private static double approxAtan(double z)
+	{
+		//z in [-1,1]
+		final double z2 = z * z;
+		return z * (0.9998660 + z2 * (-0.3302995 + z2 * (0.1801410 + z2 * (-0.0851330 + z2 * 0.0208351))));
+	}
+
+	private static double approxAtan2(double y,double x)
+	{
+		if(x == 0 && y == 0)
+		{
+			return 0;
+		}
+
+		//we always divide the smallest by the biggest so the ratio stays in [-1,1]
+		if(Math.abs(x) >= Math.abs(y))
+		{
+			final double atan = approxAtan(y / x);
+			if(x > 0)
+			{
+				return atan;
+			}
+			return y >= 0 ? atan + Math.PI : atan - Math.PI;
+		}
+
+		final double atan = approxAtan(x / y);
+		return y > 0 ? HALF_PI - atan : -HALF_PI - atan;
+	}
+
+	//Lazily built so the table only costs memory when TABLE is used
+	private static final class Table
+	{
+		private static final int SIZE = 4096;
+		private static final int QUARTER = SIZE / 4;
+		private static final double SCALE = SIZE / TWO_PI;
+
+		//two more entries so interpolation never needs to wrap, even when rounding gives 2pi
+		private static final double[] SIN = new double[SIZE + QUARTER + 2];
+
+		static
+		{
+			for(int i = 0;i < SIN.length;i++)
+			{
+				SIN[i] = Math.sin(i / SCALE);
+			}
+		}
+
+		static double sin(double angle)
+		{
+			final double position = reduce(angle) * SCALE;
+			final int index = (int) position;
+			return interpolate(index,position - index);
+		}
+
+		static double interpolate(int index,double t)
+		{
+			return SIN[index] + (SIN[index + 1] - SIN[index]) * t;
+		}
+	}
+
+}
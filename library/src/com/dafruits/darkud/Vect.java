@@ -14,6 +14,9 @@ public class Vect implements Serializable{
 	
 	private static final long serialVersionUID = 8985715854677884531L;
 	
+	//trigonometry used by rotations and angles, shared by all vectors
+	private static volatile Trig trig = Trig.EXACT;
+	
 	//coordinates
 	public double x = 0;
 	public double y = 0;
@@ -32,6 +35,34 @@ public class Vect implements Serializable{
 		this.y = y;
 	}
 	
+	public static void setTrig(Trig t)
+	{
+		//choose how exact rotations and angles are, see Trig for the errors of each one
+		trig = t == null ? Trig.EXACT : t;
+	}
+	
+	public static Trig getTrig()
+	{
+		return trig;
+	}
+	
+	//In place operations
+	//They change this vector (or the out vector given) and return it so calls can be chained
+	//none of them allocates, use them where many points are computed
+	public Vect set(double x,double y)
+	{
+		this.x = x;
+		this.y = y;
+		return this;
+	}
+	
+	public Vect set(Vect v)
+	{
+		x = v.x;
+		y = v.y;
+		return this;
+	}
+	
 	//Operations on vector
 	public double length()
 	{
@@ -51,7 +82,22 @@ public class Vect implements Serializable{
 		//return the normalized coordinates of this vector
 		//normalizing a vector means he got a length of 1
 		//to normalize a vector we divide his coordinates by his length
-		return new Vect(x/length(),y/length());
+		return new Vect(x,y).normalizeLocal();
+	}
+	
+	public Vect normalizeLocal()
+	{
+		//same as normalize but on this vector, the length is computed only once
+		final double length = length();
+		x = x/length;
+		y = y/length;
+		return this;
+	}
+	
+	public Vect perpLocal()
+	{
+		//same as perp but on this vector
+		return set(-y,x);
 	}
 	
 	public Vect add(Vect v)
@@ -60,6 +106,12 @@ public class Vect implements Serializable{
 		return new Vect(x + v.x,y+v.y);
 	}
 	
+	public Vect addLocal(Vect v)
+	{
+		//same as add but on this vector
+		return set(x + v.x,y + v.y);
+	}
+	
 	public Vect sub(Vect v)
 	{
 		//Subtract this vector with another and return result
@@ -67,6 +119,12 @@ public class Vect implements Serializable{
 		return new Vect(v.x-x,v.y-y);
 	}
 	
+	public Vect subLocal(Vect v)
+	{
+		//same as sub but on this vector, so this becomes OA too
+		return set(v.x - x,v.y - y);
+	}
+	
 	public Vect mul(int real)
 	{
 		//multiply this vector by a real and return result
@@ -79,6 +137,12 @@ public class Vect implements Serializable{
 		return new Vect(d * x,d * y);
 	}
 	
+	public Vect mulLocal(double d)
+	{
+		//same as mul but on this vector
+		return set(d * x,d * y);
+	}
+	
 	public double dot(Vect v)
 	{
 		//dot product of two vectors
@@ -93,27 +157,14 @@ public class Vect implements Serializable{
 	
 	public double angle(Vect v)
 	{
-		//use of the dot product to have the resulting angle
-		Vect A = normalize();
-		Vect B = v.normalize();
+		//dot and cross products give the cosine and the sine of the angle, scaled by the same lengths
+		//so atan2 gets it directly, no normalization needed
+		final double angle = trig.atan2(-cross(v),dot(v));
 		
-		double dot = 0;
-		double add = 0;		
-		
-		while((dot = A.dot(B)) < 0)
-		{
-			B = B.perp();
-			add += Math.PI/2;
-		}
-		
-		double angle = Math.acos(A.dot(B)) + add; 
-		
-		if(add == 0)
+		//same range as we always returned, ]-PI/2,3PI/2]
+		if(angle < -Math.PI/2)
 		{
-			B = B.perp();
-			dot = A.dot(B);
-			
-			if(dot < 0)angle = -angle;			
+			return angle + 2 * Math.PI;
 		}
 		
 		return angle;
@@ -143,62 +194,77 @@ public class Vect implements Serializable{
 	{
 		//calculate the resulting vector after applying a rotation 
 		//pivot represent the center of the rotation
-		Vect result = new Vect(x,y);
-
-		//we translate back to origin
-		result = translate(pivot.mul(-1));
-		
-		//we apply rotation
-		result = result.rotate(angle);
+		return rotateInto(pivot,angle,new Vect());
+	}
+	
+	public Vect rotateInto(Vect pivot,double angle,Vect out)
+	{
+		//same as rotate but the result goes in out, which can be this vector
+		//we translate back to origin, apply the rotation and translate back to original position
+		//out can be this vector or the pivot, so everything is read before sinCos writes in it
+		final double px = pivot.x;
+		final double py = pivot.y;
+		final double dx = x - px;
+		final double dy = y - py;
 		
-		//we translate b to original position
-		result = result.translate(pivot);
+		trig.sinCos(angle,out);
+		final double cos = out.x;
+		final double sin = out.y;
 		
-		return result;
+		return out.set(px + dx * cos - dy * sin,py + dx * sin + dy * cos);
+	}
+	
+	public Vect setRotated(Vect pivot,double angle)
+	{
+		//rotate this vector around pivot
+		return rotateInto(pivot,angle,this);
 	}
 	
 	public Vect rotate(double angle)
 	{
 		//Basic rotation
-		return new Vect(x * Math.cos(angle) - y * Math.sin(angle)
-						,x * Math.sin(angle) + y*Math.cos(angle));
+		return rotateInto(angle,new Vect());
+	}
+	
+	public Vect rotateInto(double angle,Vect out)
+	{
+		//same as rotate but the result goes in out, which can be this vector
+		final double vx = x;
+		final double vy = y;
+		
+		trig.sinCos(angle,out);
+		final double cos = out.x;
+		final double sin = out.y;
+		
+		return out.set(vx * cos - vy * sin,vx * sin + vy * cos);
 	}
 	
 	public Vect scale(Vect pivot,double ratio)
 	{
 		//calculate the resulting vector after applying a scale
 		//pivot represent the invariant point on the scale
-		Vect result = new Vect(x,y);
-				
-		//as for rotation, we translate back to origin
-		result = translate(pivot.mul(-1));
-		
-		//we apply scale 
-		result = result.mul(ratio);
-		
-		//we translate back to original position
-		result = result.translate(pivot);
-		
-		return result;		
+		return scaleInto(pivot,ratio,new Vect());
+	}
+	
+	public Vect scaleInto(Vect pivot,double ratio,Vect out)
+	{
+		//same as scale but the result goes in out, which can be this vector
+		//as for rotation, we translate back to origin, scale and translate back to original position
+		return out.set(pivot.x + (x - pivot.x) * ratio,pivot.y + (y - pivot.y) * ratio);
 	}
 	
 	public Vect shear(Vect pivot,double xRatio,double yRatio)
 	{
 		//calculate the resulting vector after applying a shear operation
 		//pivot represent the invariant point on the scale
-		Vect result = new Vect(x,y);
-				
-		//as for rotation, we translate back to origin
-		result = translate(pivot.mul(-1));
-		
-		//we apply the matrix 
-		result.x = result.x * xRatio;
-		result.y = result.y * yRatio;
-		
-		//we translate back to original position
-		result = result.translate(pivot);
-		
-		return result;
+		return shearInto(pivot,xRatio,yRatio,new Vect());
+	}
+	
+	public Vect shearInto(Vect pivot,double xRatio,double yRatio,Vect out)
+	{
+		//same as shear but the result goes in out, which can be this vector
+		//as for rotation, we translate back to origin, apply the matrix and translate back to original position
+		return out.set(pivot.x + (x - pivot.x) * xRatio,pivot.y + (y - pivot.y) * yRatio);
 	}
 	
 	@Override
@@ -0,0 +1,271 @@
+package com.dafruits.darkud;
+
+//Class			: 	VectBuffer
+//Description 	:	Many points stored in two primitive arrays (all the x then all the y)
+//					instead of one Vect object each, transformed all at once and
+//					exported to the float arrays Canvas.drawPoints and drawLines take
+//
+//There is no Vector API (jdk.incubator.vector) path: the library only ships to
+//Android, whose runtimes have no such module, and on a JVM it is an incubator
+//module needing JDK 16+ and --add-modules, while the JVM build of these sources
+//(benchmarks/) compiles them at release 8. The loops stay plain loops over
+//primitive arrays, one coordinate at a time where x and y are independent
+
+public class VectBuffer {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	//package visible so VectCodec copies them without going point by point
+	double[] xs;
+	double[] ys;
+	private int size = 0;
+
+	//receives cos and sin of rotations
+	private final Vect sinCos = new Vect();
+
+	//constructors
+	public VectBuffer()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	public VectBuffer(int capacity)
+	{
+		xs = new double[Math.max(1,capacity)];
+		ys = new double[xs.length];
+	}
+
+	//Content
+	public int size()
+	{
+		return size;
+	}
+
+	public void clear()
+	{
+		//the arrays are kept for the next points
+		size = 0;
+	}
+
+	public void ensureCapacity(int capacity)
+	{
+		if(capacity <= xs.length)
+		{
+			return;
+		}
+
+		final int newCapacity = Math.max(capacity,xs.length * 2);
+		final double[] newXs = new double[newCapacity];
+		final double[] newYs = new double[newCapacity];
+		System.arraycopy(xs,0,newXs,0,size);
+		System.arraycopy(ys,0,newYs,0,size);
+		xs = newXs;
+		ys = newYs;
+	}
+
+	public VectBuffer add(double x,double y)
+	{
+		ensureCapacity(size + 1);
+		xs[size] = x;
+		ys[size] = y;
+		size++;
+		return this;
+	}
+
+	public VectBuffer add(Vect v)
+	{
+		return add(v.x,v.y);
+	}
+
+	public void set(int index,double x,double y)
+	{
+		checkIndex(index);
+		xs[index] = x;
+		ys[index] = y;
+	}
+
+	public double getX(int index)
+	{
+		checkIndex(index);
+		return xs[index];
+	}
+
+	public double getY(int index)
+	{
+		checkIndex(index);
+		return ys[index];
+	}
+
+	public Vect get(int index,Vect out)
+	{
+		//copy a point in out
+		checkIndex(index);
+		return out.set(xs[index],ys[index]);
+	}
+
+	private void checkIndex(int index)
+	{
+		if(index < 0 || index >= size)
+		{
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	//Batch operations, same results as the Vect methods of the same name on every point
+	public VectBuffer translate(Vect v)
+	{
+		final double dx = v.x;
+		final double dy = v.y;
+		final double[] xs = this.xs;
+		final double[] ys = this.ys;
+
+		for(int i = 0;i < size;i++)
+		{
+			xs[i] += dx;
+		}
+		for(int i = 0;i < size;i++)
+		{
+			ys[i] += dy;
+		}
+		return this;
+	}
+
+	public VectBuffer rotate(Vect pivot,double angle)
+	{
+		Vect.getTrig().sinCos(angle,sinCos);
+		return linear(sinCos.x,sinCos.y,-sinCos.y,sinCos.x,pivot.x,pivot.y);
+	}
+
+	public VectBuffer rotate(double angle)
+	{
+		Vect.getTrig().sinCos(angle,sinCos);
+		return linear(sinCos.x,sinCos.y,-sinCos.y,sinCos.x,0,0);
+	}
+
+	public VectBuffer scale(Vect pivot,double ratio)
+	{
+		return shear(pivot,ratio,ratio);
+	}
+
+	public VectBuffer shear(Vect pivot,double xRatio,double yRatio)
+	{
+		//x and y don't depend on each other here, so each array is done on its own
+		final double px = pivot.x;
+		final double py = pivot.y;
+		final double[] xs = this.xs;
+		final double[] ys = this.ys;
+
+		for(int i = 0;i < size;i++)
+		{
+			xs[i] = px + (xs[i] - px) * xRatio;
+		}
+		for(int i = 0;i < size;i++)
+		{
+			ys[i] = py + (ys[i] - py) * yRatio;
+		}
+		return this;
+	}
+
+	public VectBuffer transform(Matrix2D m)
+	{
+		//any chain of operations composed in m, in a single pass
+		final double a = m.a;
+		final double b = m.b;
+		final double c = m.c;
+		final double d = m.d;
+		final double tx = m.tx;
+		final double ty = m.ty;
+		final double[] xs = this.xs;
+		final double[] ys = this.ys;
+
+		for(int i = 0;i < size;i++)
+		{
+			final double x = xs[i];
+			final double y = ys[i];
+			xs[i] = a * x + c * y + tx;
+			ys[i] = b * x + d * y + ty;
+		}
+		return this;
+	}
+
+	private VectBuffer linear(double la,double lb,double lc,double ld,double px,double py)
+	{
+		//p + l * (v - p) for every point
+		final double[] xs = this.xs;
+		final double[] ys = this.ys;
+
+		for(int i = 0;i < size;i++)
+		{
+			final double dx = xs[i] - px;
+			final double dy = ys[i] - py;
+			xs[i] = px + la * dx + lc * dy;
+			ys[i] = py + lb * dx + ld * dy;
+		}
+		return this;
+	}
+
+	//Export
+	public float[] toPoints(float[] dst,int offset)
+	{
+		//x0,y0,x1,y1... as drawPoints takes them, and drawLines when points go by pairs
+		//dst is reallocated when too small
+		final int length = offset + size * 2;
+		if(dst == null || dst.length < length)
+		{
+			final float[] bigger = new float[length];
+			if(dst != null)
+			{
+				System.arraycopy(dst,0,bigger,0,Math.min(offset,dst.length));
+			}
+			dst = bigger;
+		}
+
+		for(int i = 0;i < size;i++)
+		{
+			dst[offset++] = (float) xs[i];
+			dst[offset++] = (float) ys[i];
+		}
+		return dst;
+	}
+
+	public float[] toLineStrip(float[] dst,int offset)
+	{
+		//the lines joining each point to the next one, as drawLines takes them
+		final int lines = Math.max(0,size - 1);
+		final int length = offset + lines * 4;
+		if(dst == null || dst.length < length)
+		{
+			final float[] bigger = new float[length];
+			if(dst != null)
+			{
+				System.arraycopy(dst,0,bigger,0,Math.min(offset,dst.length));
+			}
+			dst = bigger;
+		}
+
+		for(int i = 0;i < lines;i++)
+		{
+			dst[offset++] = (float) xs[i];
+			dst[offset++] = (float) ys[i];
+			dst[offset++] = (float) xs[i + 1];
+			dst[offset++] = (float) ys[i + 1];
+		}
+		return dst;
+	}
+
+	@Override
+	public String toString() {
+
+		final StringBuilder sb = new StringBuilder("[");
+		for(int i = 0;i < size;i++)
+		{
+			if(i > 0)
+			{
+				sb.append(',');
+			}
+			sb.append('(').append((float)xs[i]).append(',').append((float)ys[i]).append(')');
+		}
+		return sb.append(']').toString();
+	}
+
+}
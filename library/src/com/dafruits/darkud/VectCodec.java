@@ -0,0 +1,198 @@
+package com.dafruits.darkud;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+//Class			: 	VectCodec
+//Description 	:	Writes vectors and point arrays as raw coordinates, 16 bytes a Vect
+//					and 8 bytes a VectF, instead of the class descriptions and headers
+//					of Serializable
+//
+//Arrays are written as their number of points (an int) followed by x0,y0,x1,y1...
+//in the byte order of the buffer. Values are read back in the same order they are written
+
+public final class VectCodec {
+
+	public static final int VECT_BYTES = 16;
+	public static final int VECTF_BYTES = 8;
+
+	private VectCodec()
+	{
+		//Only static methods
+	}
+
+	//Single vectors
+	public static void write(ByteBuffer buffer,Vect v)
+	{
+		buffer.putDouble(v.x);
+		buffer.putDouble(v.y);
+	}
+
+	public static Vect read(ByteBuffer buffer,Vect out)
+	{
+		final double x = buffer.getDouble();
+		return out.set(x,buffer.getDouble());
+	}
+
+	public static void write(ByteBuffer buffer,VectF v)
+	{
+		buffer.putFloat(v.x);
+		buffer.putFloat(v.y);
+	}
+
+	public static VectF read(ByteBuffer buffer,VectF out)
+	{
+		final float x = buffer.getFloat();
+		return out.set(x,buffer.getFloat());
+	}
+
+	//Packing, the flat layout every bulk method below writes
+	public static double[] pack(Vect[] points,int offset,int count,double[] dst)
+	{
+		//x0,y0,x1,y1... in dst, reallocated when too small
+		if(dst == null || dst.length < count * 2)
+		{
+			dst = new double[count * 2];
+		}
+
+		for(int i = 0,j = 0;i < count;i++)
+		{
+			final Vect v = points[offset + i];
+			dst[j++] = v.x;
+			dst[j++] = v.y;
+		}
+		return dst;
+	}
+
+	public static Vect[] unpack(double[] src,int count)
+	{
+		final Vect[] points = new Vect[count];
+		for(int i = 0,j = 0;i < count;i++)
+		{
+			final double x = src[j++];
+			points[i] = new Vect(x,src[j++]);
+		}
+		return points;
+	}
+
+	public static double[] pack(VectBuffer points,double[] dst)
+	{
+		final int count = points.size();
+		if(dst == null || dst.length < count * 2)
+		{
+			dst = new double[count * 2];
+		}
+
+		final double[] xs = points.xs;
+		final double[] ys = points.ys;
+		for(int i = 0,j = 0;i < count;i++)
+		{
+			dst[j++] = xs[i];
+			dst[j++] = ys[i];
+		}
+		return dst;
+	}
+
+	public static VectBuffer unpack(double[] src,int count,VectBuffer out)
+	{
+		//out is cleared then filled with the points
+		out.clear();
+		out.ensureCapacity(count);
+		for(int i = 0,j = 0;i < count;i++)
+		{
+			final double x = src[j++];
+			out.add(x,src[j++]);
+		}
+		return out;
+	}
+
+	//Bulk write and read
+	public static void write(ByteBuffer buffer,Vect[] points)
+	{
+		write(buffer,points,0,points.length);
+	}
+
+	public static void write(ByteBuffer buffer,Vect[] points,int offset,int count)
+	{
+		buffer.putInt(count);
+		final DoubleBuffer doubles = buffer.asDoubleBuffer();
+		for(int i = 0;i < count;i++)
+		{
+			final Vect v = points[offset + i];
+			doubles.put(v.x);
+			doubles.put(v.y);
+		}
+		//the view has its own position
+		buffer.position(buffer.position() + count * VECT_BYTES);
+	}
+
+	public static Vect[] readVects(ByteBuffer buffer)
+	{
+		final int count = buffer.getInt();
+		final DoubleBuffer doubles = buffer.asDoubleBuffer();
+		final Vect[] points = new Vect[count];
+		for(int i = 0;i < count;i++)
+		{
+			final double x = doubles.get();
+			points[i] = new Vect(x,doubles.get());
+		}
+		buffer.position(buffer.position() + count * VECT_BYTES);
+		return points;
+	}
+
+	public static void write(ByteBuffer buffer,VectBuffer points)
+	{
+		final int count = points.size();
+		buffer.putInt(count);
+		final DoubleBuffer doubles = buffer.asDoubleBuffer();
+		final double[] xs = points.xs;
+		final double[] ys = points.ys;
+		for(int i = 0;i < count;i++)
+		{
+			doubles.put(xs[i]);
+			doubles.put(ys[i]);
+		}
+		buffer.position(buffer.position() + count * VECT_BYTES);
+	}
+
+	public static VectBuffer read(ByteBuffer buffer,VectBuffer out)
+	{
+		//out is cleared then filled with the points
+		final int count = buffer.getInt();
+		final DoubleBuffer doubles = buffer.asDoubleBuffer();
+		out.clear();
+		out.ensureCapacity(count);
+		for(int i = 0;i < count;i++)
+		{
+			final double x = doubles.get();
+			out.add(x,doubles.get());
+		}
+		buffer.position(buffer.position() + count * VECT_BYTES);
+		return out;
+	}
+
+	public static void write(ByteBuffer buffer,float[] points,int offset,int count)
+	{
+		//count points of an array laid out for Canvas, in one put
+		buffer.putInt(count);
+		buffer.asFloatBuffer().put(points,offset,count * 2);
+		buffer.position(buffer.position() + count * VECTF_BYTES);
+	}
+
+	public static float[] readFloats(ByteBuffer buffer)
+	{
+		final int count = buffer.getInt();
+		final float[] points = new float[count * 2];
+		buffer.asFloatBuffer().get(points);
+		buffer.position(buffer.position() + count * VECTF_BYTES);
+		return points;
+	}
+
+	public static int size(int count,boolean floats)
+	{
+		//bytes needed to write an array of count points
+		return 4 + count * (floats ? VECTF_BYTES : VECT_BYTES);
+	}
+
+}
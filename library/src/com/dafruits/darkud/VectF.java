@@ -0,0 +1,250 @@
+package com.dafruits.darkud;
+
+import java.io.Serializable;
+
+//Class			: 	VectF
+//Description 	:	Same as Vect with float coordinates, half the memory and no
+//					cast needed when points go to a Canvas
+
+public class VectF implements Serializable{
+
+	private static final long serialVersionUID = -3125587209841764523L;
+	
+	//receives cos and sin of rotations, one per thread so a VectF stays two floats
+	private static final ThreadLocal<double[]> SIN_COS = new ThreadLocal<double[]>()
+	{
+		@Override
+		protected double[] initialValue()
+		{
+			return new double[2];
+		}
+	};
+
+	//coordinates
+	public float x = 0;
+	public float y = 0;
+
+	//constructors
+	public VectF(){
+		//Default constructor
+		x = 0;
+		y = 0;
+	}
+
+	public VectF(float x,float y)
+	{
+		this.x = x;
+		this.y = y;
+	}
+
+	public VectF(Vect v)
+	{
+		//conversion from a double vector, precision is lost
+		x = (float) v.x;
+		y = (float) v.y;
+	}
+
+	//Conversions
+	public Vect toVect()
+	{
+		return new Vect(x,y);
+	}
+
+	public Vect toVect(Vect out)
+	{
+		return out.set(x,y);
+	}
+
+	//In place operations, as in Vect
+	public VectF set(float x,float y)
+	{
+		this.x = x;
+		this.y = y;
+		return this;
+	}
+
+	public VectF set(VectF v)
+	{
+		x = v.x;
+		y = v.y;
+		return this;
+	}
+
+	public VectF set(Vect v)
+	{
+		x = (float) v.x;
+		y = (float) v.y;
+		return this;
+	}
+
+	//Operations on vector
+	public float length()
+	{
+		return (float) Math.sqrt(x * x + y * y);
+	}
+
+	public VectF perp()
+	{
+		return new VectF(-y,x);
+	}
+
+	public VectF normalize()
+	{
+		return new VectF(x,y).normalizeLocal();
+	}
+
+	public VectF normalizeLocal()
+	{
+		final float length = length();
+		x = x/length;
+		y = y/length;
+		return this;
+	}
+
+	public VectF perpLocal()
+	{
+		return set(-y,x);
+	}
+
+	public VectF add(VectF v)
+	{
+		return new VectF(x + v.x,y + v.y);
+	}
+
+	public VectF addLocal(VectF v)
+	{
+		return set(x + v.x,y + v.y);
+	}
+
+	public VectF sub(VectF v)
+	{
+		//same as Vect.sub, O.sub(A) = OA
+		return new VectF(v.x - x,v.y - y);
+	}
+
+	public VectF subLocal(VectF v)
+	{
+		return set(v.x - x,v.y - y);
+	}
+
+	public VectF mul(int real)
+	{
+		return new VectF(real * x,real * y);
+	}
+
+	public VectF mul(float f)
+	{
+		return new VectF(f * x,f * y);
+	}
+
+	public VectF mulLocal(float f)
+	{
+		return set(f * x,f * y);
+	}
+
+	public float dot(VectF v)
+	{
+		return x*v.x + y*v.y;
+	}
+
+	public float cross(VectF v)
+	{
+		return x*v.y - y*v.x;
+	}
+
+	public double angle(VectF v)
+	{
+		//same range as Vect.angle, ]-PI/2,3PI/2]
+		final double angle = Vect.getTrig().atan2(-cross(v),dot(v));
+
+		if(angle < -Math.PI/2)
+		{
+			return angle + 2 * Math.PI;
+		}
+
+		return angle;
+	}
+
+	public float overlap(VectF v)
+	{
+		//same as Vect.overlap
+		if((x > v.y || v.x > y))
+		{
+			return 0;
+		}
+
+		return (Math.abs((x - y)/2) + Math.abs((v.x - v.y)/2) - Math.abs((x + y - v.x - v.y)/2));
+	}
+
+	public VectF translate(VectF v)
+	{
+		return add(v);
+	}
+
+	public VectF rotate(VectF pivot,double angle)
+	{
+		return rotateInto(pivot,angle,new VectF());
+	}
+
+	public VectF rotateInto(VectF pivot,double angle,VectF out)
+	{
+		//computed in double as Vect does, only the result is rounded
+		final double[] sinCos = Vect.getTrig().sinCos(angle,SIN_COS.get());
+		final double cos = sinCos[0];
+		final double sin = sinCos[1];
+		final float px = pivot.x;
+		final float py = pivot.y;
+		final double dx = x - px;
+		final double dy = y - py;
+
+		return out.set((float) (px + dx * cos - dy * sin),(float) (py + dx * sin + dy * cos));
+	}
+
+	public VectF setRotated(VectF pivot,double angle)
+	{
+		return rotateInto(pivot,angle,this);
+	}
+
+	public VectF rotate(double angle)
+	{
+		return rotateInto(angle,new VectF());
+	}
+
+	public VectF rotateInto(double angle,VectF out)
+	{
+		final double[] sinCos = Vect.getTrig().sinCos(angle,SIN_COS.get());
+		final double cos = sinCos[0];
+		final double sin = sinCos[1];
+		final float vx = x;
+		final float vy = y;
+
+		return out.set((float) (vx * cos - vy * sin),(float) (vx * sin + vy * cos));
+	}
+
+	public VectF scale(VectF pivot,float ratio)
+	{
+		return scaleInto(pivot,ratio,new VectF());
+	}
+
+	public VectF scaleInto(VectF pivot,float ratio,VectF out)
+	{
+		return out.set(pivot.x + (x - pivot.x) * ratio,pivot.y + (y - pivot.y) * ratio);
+	}
+
+	public VectF shear(VectF pivot,float xRatio,float yRatio)
+	{
+		return shearInto(pivot,xRatio,yRatio,new VectF());
+	}
+
+	public VectF shearInto(VectF pivot,float xRatio,float yRatio,VectF out)
+	{
+		return out.set(pivot.x + (x - pivot.x) * xRatio,pivot.y + (y - pivot.y) * yRatio);
+	}
+
+	@Override
+	public String toString() {
+
+		return "("+x+","+y+")";
+	}
+
+}
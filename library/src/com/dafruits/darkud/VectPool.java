@@ -0,0 +1,65 @@
+package com.dafruits.darkud;
+
+//Class			: 	VectPool
+//Description 	:	Scratch vectors reused by the thread using them, so that
+//					temporary results of in place operations cost no allocation
+
+public final class VectPool {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private static final ThreadLocal<VectPool> POOLS = new ThreadLocal<VectPool>()
+	{
+		@Override
+		protected VectPool initialValue()
+		{
+			return new VectPool();
+		}
+	};
+
+	private Vect[] free = new Vect[DEFAULT_CAPACITY];
+	private int count = 0;
+
+	private VectPool()
+	{
+		//One pool per thread, use get()
+	}
+
+	public static VectPool get()
+	{
+		//return the pool of the current thread
+		return POOLS.get();
+	}
+
+	public Vect obtain()
+	{
+		//return a vector set to (0,0), reused if one has been given back
+		if(count == 0)
+		{
+			return new Vect();
+		}
+
+		final Vect v = free[--count];
+		free[count] = null;
+		return v.set(0,0);
+	}
+
+	public Vect obtain(double x,double y)
+	{
+		return obtain().set(x,y);
+	}
+
+	public void recycle(Vect v)
+	{
+		//give back a vector the caller doesnt use anymore
+		if(count == free.length)
+		{
+			final Vect[] bigger = new Vect[count * 2];
+			System.arraycopy(free,0,bigger,0,count);
+			free = bigger;
+		}
+
+		free[count++] = v;
+	}
+
+}